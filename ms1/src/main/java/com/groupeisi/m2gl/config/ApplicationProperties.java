@@ -1,6 +1,8 @@
 package com.groupeisi.m2gl.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Ms 1.
@@ -13,12 +15,48 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Pagination pagination = new Pagination();
+
+    private final BookImport bookImport = new BookImport();
+
+    private final BookChanges bookChanges = new BookChanges();
+
+    private final BookBatch bookBatch = new BookBatch();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final Graphql graphql = new Graphql();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    public BookImport getBookImport() {
+        return bookImport;
+    }
+
+    public BookChanges getBookChanges() {
+        return bookChanges;
+    }
+
+    public BookBatch getBookBatch() {
+        return bookBatch;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public Graphql getGraphql() {
+        return graphql;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +71,281 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Pagination {
+
+        private int defaultPageSize = 20;
+
+        private int maxPageSize = 500;
+
+        private Duration countCacheTtl = Duration.ofMinutes(1);
+
+        private long countCacheMaxEntries = 1000;
+
+        public int getDefaultPageSize() {
+            return defaultPageSize;
+        }
+
+        public void setDefaultPageSize(int defaultPageSize) {
+            this.defaultPageSize = defaultPageSize;
+        }
+
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+
+        public Duration getCountCacheTtl() {
+            return countCacheTtl;
+        }
+
+        public void setCountCacheTtl(Duration countCacheTtl) {
+            this.countCacheTtl = countCacheTtl;
+        }
+
+        public long getCountCacheMaxEntries() {
+            return countCacheMaxEntries;
+        }
+
+        public void setCountCacheMaxEntries(long countCacheMaxEntries) {
+            this.countCacheMaxEntries = countCacheMaxEntries;
+        }
+    }
+
+    public static class BookImport {
+
+        private int chunkSize = 500;
+
+        private int maxReportedRejections = 100;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxReportedRejections() {
+            return maxReportedRejections;
+        }
+
+        public void setMaxReportedRejections(int maxReportedRejections) {
+            this.maxReportedRejections = maxReportedRejections;
+        }
+    }
+
+    public static class BookChanges {
+
+        /**
+         * What happens to a GraphQL subscriber whose pending events reach {@code maxPendingEvents}.
+         */
+        public enum Overflow {
+            DROP,
+            DISCONNECT,
+        }
+
+        private int replayCapacity = 1000;
+
+        private int maxPendingEvents = 100;
+
+        private Duration timeout = Duration.ofMinutes(30);
+
+        private Overflow subscriptionOverflow = Overflow.DISCONNECT;
+
+        private int senderThreads = 4;
+
+        private int senderQueueCapacity = 1000;
+
+        public int getReplayCapacity() {
+            return replayCapacity;
+        }
+
+        public void setReplayCapacity(int replayCapacity) {
+            this.replayCapacity = replayCapacity;
+        }
+
+        public int getMaxPendingEvents() {
+            return maxPendingEvents;
+        }
+
+        public void setMaxPendingEvents(int maxPendingEvents) {
+            this.maxPendingEvents = maxPendingEvents;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Overflow getSubscriptionOverflow() {
+            return subscriptionOverflow;
+        }
+
+        public void setSubscriptionOverflow(Overflow subscriptionOverflow) {
+            this.subscriptionOverflow = subscriptionOverflow;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public int getSenderQueueCapacity() {
+            return senderQueueCapacity;
+        }
+
+        public void setSenderQueueCapacity(int senderQueueCapacity) {
+            this.senderQueueCapacity = senderQueueCapacity;
+        }
+    }
+
+    public static class BookBatch {
+
+        private int maxOperations = 100;
+
+        public int getMaxOperations() {
+            return maxOperations;
+        }
+
+        public void setMaxOperations(int maxOperations) {
+            this.maxOperations = maxOperations;
+        }
+    }
+
+    public static class Idempotency {
+
+        private Duration ttl = Duration.ofHours(1);
+
+        private long maxEntries = 10_000;
+
+        private Duration waitTimeout = Duration.ofSeconds(10);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getWaitTimeout() {
+            return waitTimeout;
+        }
+
+        public void setWaitTimeout(Duration waitTimeout) {
+            this.waitTimeout = waitTimeout;
+        }
+    }
+
+    public static class Graphql {
+
+        private int maxBooks = 1000;
+
+        private long documentCacheSize = 500;
+
+        private long persistedQueryCacheSize = 1000;
+
+        private double metricsFieldSampleRate = 1.0;
+
+        private int metricsMaxOperationNames = 100;
+
+        private boolean resultCacheEnabled = false;
+
+        private DataSize resultCacheMaxWeight = DataSize.ofMegabytes(16);
+
+        private Duration resultCacheTtl = Duration.ofMinutes(1);
+
+        private int streamBatchSize = 100;
+
+        public int getMaxBooks() {
+            return maxBooks;
+        }
+
+        public void setMaxBooks(int maxBooks) {
+            this.maxBooks = maxBooks;
+        }
+
+        public long getDocumentCacheSize() {
+            return documentCacheSize;
+        }
+
+        public void setDocumentCacheSize(long documentCacheSize) {
+            this.documentCacheSize = documentCacheSize;
+        }
+
+        public long getPersistedQueryCacheSize() {
+            return persistedQueryCacheSize;
+        }
+
+        public void setPersistedQueryCacheSize(long persistedQueryCacheSize) {
+            this.persistedQueryCacheSize = persistedQueryCacheSize;
+        }
+
+        public double getMetricsFieldSampleRate() {
+            return metricsFieldSampleRate;
+        }
+
+        public void setMetricsFieldSampleRate(double metricsFieldSampleRate) {
+            this.metricsFieldSampleRate = metricsFieldSampleRate;
+        }
+
+        public int getMetricsMaxOperationNames() {
+            return metricsMaxOperationNames;
+        }
+
+        public void setMetricsMaxOperationNames(int metricsMaxOperationNames) {
+            this.metricsMaxOperationNames = metricsMaxOperationNames;
+        }
+
+        public boolean isResultCacheEnabled() {
+            return resultCacheEnabled;
+        }
+
+        public void setResultCacheEnabled(boolean resultCacheEnabled) {
+            this.resultCacheEnabled = resultCacheEnabled;
+        }
+
+        public DataSize getResultCacheMaxWeight() {
+            return resultCacheMaxWeight;
+        }
+
+        public void setResultCacheMaxWeight(DataSize resultCacheMaxWeight) {
+            this.resultCacheMaxWeight = resultCacheMaxWeight;
+        }
+
+        public Duration getResultCacheTtl() {
+            return resultCacheTtl;
+        }
+
+        public void setResultCacheTtl(Duration resultCacheTtl) {
+            this.resultCacheTtl = resultCacheTtl;
+        }
+
+        public int getStreamBatchSize() {
+            return streamBatchSize;
+        }
+
+        public void setStreamBatchSize(int streamBatchSize) {
+            this.streamBatchSize = streamBatchSize;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -0,0 +1,108 @@
+package com.groupeisi.m2gl.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.groupeisi.m2gl.web.graphql.GraphQlDocumentCache;
+import com.groupeisi.m2gl.web.graphql.GraphQlMultipartHttpHandler;
+import java.io.IOException;
+import java.util.Map;
+import org.springframework.boot.autoconfigure.graphql.GraphQlProperties;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.support.SerializableGraphQlRequest;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+@Configuration
+public class GraphQlConfiguration {
+
+    /**
+     * Parse and validate each GraphQL document once, and resolve the automatic persisted queries.
+     * @return the customizer of the GraphQL source.
+     */
+    @Bean
+    public GraphQlSourceBuilderCustomizer graphQlDocumentCacheCustomizer(GraphQlDocumentCache graphQlDocumentCache) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(graphQlDocumentCache));
+    }
+
+    /**
+     * Serve the GraphQL requests accepting {@code multipart/mixed} before Spring GraphQL, to deliver {@code @defer} and
+     * {@code @stream} incrementally.
+     * @return the route of these requests.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RouterFunction<ServerResponse> graphQlMultipartRouterFunction(
+        GraphQlProperties graphQlProperties,
+        WebGraphQlHandler webGraphQlHandler,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        GraphQlMultipartHttpHandler handler = new GraphQlMultipartHttpHandler(
+            webGraphQlHandler,
+            objectMapper,
+            applicationProperties.getGraphql().getStreamBatchSize()
+        );
+        return RouterFunctions.route()
+            .POST(
+                graphQlProperties.getPath(),
+                request -> GraphQlMultipartHttpHandler.acceptsMultipart(request.headers().asHttpHeaders()),
+                handler::handleRequest
+            )
+            .build();
+    }
+
+    /**
+     * Support for the GraphQL requests sending only the hash of a persisted query, without the {@code query} member that
+     * Spring GraphQL requires.
+     * @return the corresponding Jackson module.
+     */
+    @Bean
+    public SimpleModule graphQlRequestModule() {
+        return new SimpleModule("GraphQlRequestModule").addDeserializer(SerializableGraphQlRequest.class, new GraphQlRequestDeserializer());
+    }
+
+    static class GraphQlRequestDeserializer extends StdDeserializer<SerializableGraphQlRequest> {
+
+        private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {};
+
+        GraphQlRequestDeserializer() {
+            super(SerializableGraphQlRequest.class);
+        }
+
+        @Override
+        public SerializableGraphQlRequest deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonNode body = context.readTree(parser);
+            SerializableGraphQlRequest request = new SerializableGraphQlRequest();
+            request.setQuery(readMember(context, body, "query", String.class));
+            request.setOperationName(readMember(context, body, "operationName", String.class));
+            request.setVariables(readMap(context, body, "variables"));
+            request.setExtensions(readMap(context, body, "extensions"));
+            if (request.getQuery() == null && request.getExtensions() != null && request.getExtensions().containsKey("persistedQuery")) {
+                // The document is read from the persisted queries by its hash
+                request.setQuery("");
+            }
+            return request;
+        }
+
+        private static <T> T readMember(DeserializationContext context, JsonNode body, String name, Class<T> type) throws IOException {
+            JsonNode member = body.get(name);
+            return member == null || member.isNull() ? null : context.readTreeAsValue(member, type);
+        }
+
+        private static Map<String, Object> readMap(DeserializationContext context, JsonNode body, String name) throws IOException {
+            JsonNode member = body.get(name);
+            return member == null || member.isNull() ? null : context.readTreeAsValue(member, context.getTypeFactory().constructType(MAP));
+        }
+    }
+}
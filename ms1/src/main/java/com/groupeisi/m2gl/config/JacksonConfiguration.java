@@ -3,6 +3,8 @@ package com.groupeisi.m2gl.config;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
 import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module.Feature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
@@ -11,6 +13,9 @@ import java.io.IOException;
 import java.time.LocalTime;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 @Configuration
 public class JacksonConfiguration {
@@ -46,4 +51,22 @@ public class JacksonConfiguration {
     public Hibernate6Module hibernate6Module() {
         return new Hibernate6Module().configure(Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS, true);
     }
+
+    /**
+     * Support for the {@code application/x-jackson-smile} binary format, with the same modules and features as JSON.
+     * @return the corresponding message converter, replacing the default one.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder jacksonObjectMapperBuilder) {
+        return new MappingJackson2SmileHttpMessageConverter(jacksonObjectMapperBuilder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * Support for the {@code application/cbor} binary format, with the same modules and features as JSON.
+     * @return the corresponding message converter, replacing the default one.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder jacksonObjectMapperBuilder) {
+        return new MappingJackson2CborHttpMessageConverter(jacksonObjectMapperBuilder.factory(new CBORFactory()).build());
+    }
 }
@@ -1,5 +1,6 @@
 package com.groupeisi.m2gl.domain;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import java.io.Serializable;
 import java.time.LocalDate;
@@ -9,13 +10,17 @@ import java.time.LocalDate;
  */
 @Entity
 @Table(name = "book")
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE)
+@org.hibernate.annotations.DynamicUpdate
+@EntityListeners(BookEntityListener.class)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Book implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookSequenceGenerator")
+    @SequenceGenerator(name = "bookSequenceGenerator", sequenceName = "book_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -31,6 +36,11 @@ public class Book implements Serializable {
     @Column(name = "date_pub")
     private LocalDate date_pub;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -98,6 +108,19 @@ public class Book implements Serializable {
         this.date_pub = date_pub;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Book version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -126,6 +149,7 @@ public class Book implements Serializable {
             ", prix=" + getPrix() +
             ", author='" + getAuthor() + "'" +
             ", date_pub='" + getDate_pub() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
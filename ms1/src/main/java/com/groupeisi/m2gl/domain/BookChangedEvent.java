@@ -0,0 +1,38 @@
+package com.groupeisi.m2gl.domain;
+
+/**
+ * Application event published for every {@link Book} written through JPA.
+ * <p>
+ * It is published while the transaction is still running: listeners that must only see committed changes use
+ * {@code @TransactionalEventListener}.
+ */
+public class BookChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+    }
+
+    private final Type type;
+
+    private final Book book;
+
+    public BookChangedEvent(Type type, Book book) {
+        this.type = type;
+        this.book = book;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    @Override
+    public String toString() {
+        return "BookChangedEvent{" + "type=" + type + ", book=" + book + "}";
+    }
+}
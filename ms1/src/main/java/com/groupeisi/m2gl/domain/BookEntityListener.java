@@ -0,0 +1,36 @@
+package com.groupeisi.m2gl.domain;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Publishes a {@link BookChangedEvent} for every insert, update and delete of a {@link Book}.
+ * <p>
+ * Instantiated by Hibernate through the Spring bean container, so every write path (REST, GraphQL, imports) is covered
+ * without the callers having to publish anything. Bulk JPQL statements bypass it: their callers publish the event.
+ */
+public class BookEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BookEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onPersist(Book book) {
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, book));
+    }
+
+    @PostUpdate
+    public void onUpdate(Book book) {
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED, book));
+    }
+
+    @PostRemove
+    public void onRemove(Book book) {
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, book));
+    }
+}
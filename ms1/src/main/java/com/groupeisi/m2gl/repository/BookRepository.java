@@ -1,8 +1,14 @@
 package com.groupeisi.m2gl.repository;
 
 import com.groupeisi.m2gl.domain.Book;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -10,7 +16,8 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository
+    extends BookRepositoryWithProjections, BookRepositoryWithSlices, JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
     /**
      * Recherche des livres par titre (contient).
      */
@@ -20,4 +27,31 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * Recherche des livres par auteur (contient).
      */
     List<Book> findByAuthorContainingIgnoreCase(String author);
+
+    /**
+     * Parcourt tout le catalogue en flux, par lots de 500 lignes, sans le charger en mémoire.
+     * Doit être consommé dans une transaction, et le flux doit être fermé.
+     */
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false"),
+        }
+    )
+    @Query("select book from Book book order by book.id")
+    Stream<Book> streamAllBy();
+
+    /**
+     * Livres des identifiants donnés, verrouillés en écriture jusqu'à la fin de la transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select book from Book book where book.id in :ids")
+    List<Book> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Identifiants des livres existants parmi ceux donnés, sans charger les livres.
+     */
+    @Query("select book.id from Book book where book.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
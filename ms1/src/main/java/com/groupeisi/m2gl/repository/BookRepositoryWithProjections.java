@@ -0,0 +1,52 @@
+package com.groupeisi.m2gl.repository;
+
+import com.groupeisi.m2gl.domain.Book;
+import jakarta.persistence.Tuple;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Queries selecting only some columns of the books, as {@link Tuple}s aliased by field name.
+ * <p>
+ * No entity is loaded: rows are neither hydrated as {@link Book} nor tracked by the
+ * persistence context.
+ */
+public interface BookRepositoryWithProjections {
+    /**
+     * Fields that can be projected, in the order of the entity.
+     */
+    List<String> PROJECTABLE_FIELDS = List.of("id", "title", "prix", "author", "date_pub", "version");
+
+    /**
+     * Page of books, selecting only the given fields.
+     *
+     * @param fields the fields to select, among {@link #PROJECTABLE_FIELDS}.
+     * @param specification the books to select.
+     * @param sort the order of the books.
+     * @param offset the number of rows to skip.
+     * @param limit the maximum number of rows.
+     * @return the rows.
+     */
+    List<Tuple> findProjected(List<String> fields, Specification<Book> specification, Sort sort, long offset, int limit);
+
+    /**
+     * Books streamed as they are read, selecting only the given fields. Must be consumed in a transaction, and closed.
+     *
+     * @param fields the fields to select, among {@link #PROJECTABLE_FIELDS}.
+     * @param specification the books to select.
+     * @param sort the order of the books.
+     * @param limit the maximum number of rows.
+     * @return the rows.
+     */
+    Stream<Tuple> streamProjected(List<String> fields, Specification<Book> specification, Sort sort, int limit);
+
+    /**
+     * Whole catalogue ordered by id, selecting only the given fields. Must be consumed in a transaction, and closed.
+     *
+     * @param fields the fields to select, among {@link #PROJECTABLE_FIELDS}.
+     * @return the rows.
+     */
+    Stream<Tuple> streamProjected(List<String> fields);
+}
@@ -0,0 +1,79 @@
+package com.groupeisi.m2gl.repository;
+
+import com.groupeisi.m2gl.domain.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+/**
+ * Utility repository to select only some columns of the books.
+ */
+public class BookRepositoryWithProjectionsImpl implements BookRepositoryWithProjections {
+
+    private static final String FETCH_SIZE = "500";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findProjected(List<String> fields, Specification<Book> specification, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> book = select(query, fields);
+        Predicate predicate = specification.toPredicate(book, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, book, cb));
+        return entityManager.createQuery(query).setFirstResult(Math.toIntExact(offset)).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<Tuple> streamProjected(List<String> fields, Specification<Book> specification, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> book = select(query, fields);
+        Predicate predicate = specification.toPredicate(book, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, book, cb));
+        return entityManager.createQuery(query).setMaxResults(limit).setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE).getResultStream();
+    }
+
+    @Override
+    public Stream<Tuple> streamProjected(List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> book = select(query, fields);
+        query.orderBy(cb.asc(book.get("id")));
+        return entityManager.createQuery(query).setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE).getResultStream();
+    }
+
+    private static Root<Book> select(CriteriaQuery<Tuple> query, List<String> fields) {
+        Root<Book> book = query.from(Book.class);
+        query.multiselect(
+            fields
+                .stream()
+                .<Selection<?>>map(field -> {
+                    if (!PROJECTABLE_FIELDS.contains(field)) {
+                        throw new IllegalArgumentException("Field cannot be projected: " + field);
+                    }
+                    return book.get(field).alias(field);
+                })
+                .toList()
+        );
+        return book;
+    }
+}
@@ -0,0 +1,20 @@
+package com.groupeisi.m2gl.repository;
+
+import com.groupeisi.m2gl.domain.Book;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Offset pages of books read without counting the matching books.
+ */
+public interface BookRepositoryWithSlices {
+    /**
+     * Page of books, reading one extra row to know whether there is a next page.
+     *
+     * @param specification the books to select.
+     * @param pageable the page, with its order.
+     * @return the books of the page.
+     */
+    Slice<Book> findSlice(Specification<Book> specification, Pageable pageable);
+}
@@ -0,0 +1,244 @@
+package com.groupeisi.m2gl.service;
+
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import com.groupeisi.m2gl.service.dto.BookOperationDTO;
+import com.groupeisi.m2gl.service.dto.BookOperationResultDTO;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service running a batch of book operations sent in a single HTTP call.
+ * <p>
+ * The books read by the batch are loaded upfront with a single {@code findAllById}: a {@code get} of a book that no
+ * earlier operation of the batch wrote is answered from it. Operations run in order, either all in one transaction
+ * rolled back as soon as one of them fails, or each in its own transaction.
+ */
+@Service
+public class BookBatchService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookBatchService.class);
+
+    private final BookRepository bookRepository;
+
+    private final TransactionTemplate batchTransactionTemplate;
+
+    private final TransactionTemplate operationTransactionTemplate;
+
+    public BookBatchService(
+        BookRepository bookRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.bookRepository = bookRepository;
+        this.batchTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.operationTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.operationTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Run the operations in order.
+     *
+     * @param operations the operations to run.
+     * @param atomic {@code true} to run all the operations in one transaction: when one fails, the batch is rolled back
+     * and the other operations are answered with {@code 424 (Failed Dependency)}. {@code false} to run each operation
+     * in its own transaction.
+     * @return the result of each operation, in the order of the operations.
+     */
+    public List<BookOperationResultDTO> execute(List<BookOperationDTO> operations, boolean atomic) {
+        LOG.debug("Request to run {} Book operations, atomic : {}", operations.size(), atomic);
+        return atomic ? executeAtomically(operations) : executeEach(operations);
+    }
+
+    private List<BookOperationResultDTO> executeEach(List<BookOperationDTO> operations) {
+        BatchContext context = new BatchContext(prefetch(operations));
+        List<BookOperationResultDTO> results = new ArrayList<>(operations.size());
+        for (BookOperationDTO operation : operations) {
+            try {
+                results.add(operationTransactionTemplate.execute(status -> apply(operation, context, status)));
+            } catch (RuntimeException e) {
+                results.add(failure(operation.getId(), e));
+            }
+        }
+        return results;
+    }
+
+    private List<BookOperationResultDTO> executeAtomically(List<BookOperationDTO> operations) {
+        List<BookOperationResultDTO> results = new ArrayList<>(operations.size());
+        try {
+            batchTransactionTemplate.executeWithoutResult(status -> {
+                BatchContext context = new BatchContext(prefetch(operations));
+                for (BookOperationDTO operation : operations) {
+                    BookOperationResultDTO result = apply(operation, context, status);
+                    results.add(result);
+                    if (!result.isSuccessful()) {
+                        return;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The commit itself failed: no operation was applied
+            BookOperationResultDTO failure = failure(null, e);
+            return operations
+                .stream()
+                .map(operation -> new BookOperationResultDTO(failure.getStatus(), operation.getId(), null, failure.getError()))
+                .toList();
+        }
+        if (results.size() == operations.size() && results.get(results.size() - 1).isSuccessful()) {
+            return results;
+        }
+        List<BookOperationResultDTO> rolledBack = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            if (i == results.size() - 1) {
+                rolledBack.add(results.get(i));
+            } else {
+                String error = i < results.size() ? "rolledback" : "notexecuted";
+                rolledBack.add(new BookOperationResultDTO(HttpStatus.FAILED_DEPENDENCY.value(), operations.get(i).getId(), null, error));
+            }
+        }
+        return rolledBack;
+    }
+
+    private Map<Long, Book> prefetch(List<BookOperationDTO> operations) {
+        Set<Long> ids = operations
+            .stream()
+            .filter(operation -> operation.getOp() != null && operation.getOp() != BookOperationDTO.Op.CREATE)
+            .filter(operation -> operation.getOp() != BookOperationDTO.Op.DELETE)
+            .map(BookOperationDTO::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return bookRepository.findAllById(ids).stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+    }
+
+    /**
+     * Apply an operation, marking the transaction for rollback when it fails.
+     */
+    private BookOperationResultDTO apply(BookOperationDTO operation, BatchContext context, TransactionStatus status) {
+        BookOperationResultDTO result;
+        try {
+            result = doApply(operation, context);
+        } catch (RuntimeException e) {
+            result = failure(operation.getId(), e);
+        }
+        if (!result.isSuccessful()) {
+            status.setRollbackOnly();
+        }
+        return result;
+    }
+
+    private BookOperationResultDTO doApply(BookOperationDTO operation, BatchContext context) {
+        if (operation.getOp() == null) {
+            return error(HttpStatus.BAD_REQUEST, null, "opinvalid");
+        }
+        Long id = operation.getId();
+        Book book = operation.getBook();
+        if (operation.getOp() == BookOperationDTO.Op.CREATE) {
+            if (book == null) {
+                return error(HttpStatus.BAD_REQUEST, null, "bookmissing");
+            }
+            if (book.getId() != null) {
+                return error(HttpStatus.BAD_REQUEST, book.getId(), "idexists");
+            }
+            Book created = bookRepository.saveAndFlush(book);
+            context.written.add(created.getId());
+            return new BookOperationResultDTO(HttpStatus.CREATED.value(), created.getId(), created, null);
+        }
+        if (id == null) {
+            return error(HttpStatus.BAD_REQUEST, null, "idnull");
+        }
+        switch (operation.getOp()) {
+            case GET:
+                Book found = context.written.contains(id) ? bookRepository.findById(id).orElse(null) : context.prefetched.get(id);
+                if (found == null) {
+                    return error(HttpStatus.NOT_FOUND, id, "idnotfound");
+                }
+                return new BookOperationResultDTO(HttpStatus.OK.value(), id, found, null);
+            case DELETE:
+                Book deleted = bookRepository.findById(id).orElse(null);
+                if (deleted == null) {
+                    return error(HttpStatus.NOT_FOUND, id, "idnotfound");
+                }
+                bookRepository.delete(deleted);
+                context.written.add(id);
+                return new BookOperationResultDTO(HttpStatus.NO_CONTENT.value(), id, null, null);
+            default:
+                return update(operation.getOp() == BookOperationDTO.Op.PATCH, id, book, context);
+        }
+    }
+
+    private BookOperationResultDTO update(boolean partial, Long id, Book book, BatchContext context) {
+        if (book == null) {
+            return error(HttpStatus.BAD_REQUEST, id, "bookmissing");
+        }
+        if (book.getId() != null && !book.getId().equals(id)) {
+            return error(HttpStatus.BAD_REQUEST, id, "idinvalid");
+        }
+        Book existingBook = bookRepository.findById(id).orElse(null);
+        if (existingBook == null) {
+            return error(HttpStatus.BAD_REQUEST, id, "idnotfound");
+        }
+        if (!partial || book.getTitle() != null) {
+            existingBook.setTitle(book.getTitle());
+        }
+        if (!partial || book.getPrix() != null) {
+            existingBook.setPrix(book.getPrix());
+        }
+        if (!partial || book.getAuthor() != null) {
+            existingBook.setAuthor(book.getAuthor());
+        }
+        if (!partial || book.getDate_pub() != null) {
+            existingBook.setDate_pub(book.getDate_pub());
+        }
+        // Flush so that a failure is reported on this operation, with the incremented version otherwise
+        Book result = bookRepository.saveAndFlush(existingBook);
+        context.written.add(id);
+        return new BookOperationResultDTO(HttpStatus.OK.value(), id, result, null);
+    }
+
+    private static BookOperationResultDTO error(HttpStatus status, Long id, String error) {
+        return new BookOperationResultDTO(status.value(), id, null, error);
+    }
+
+    private static BookOperationResultDTO failure(Long id, RuntimeException e) {
+        if (e instanceof ConcurrencyFailureException) {
+            return error(HttpStatus.CONFLICT, id, "concurrencyFailure");
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            return error(HttpStatus.BAD_REQUEST, id, "dataintegrity");
+        }
+        LOG.warn("Book operation on {} failed", id, e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, id, "internal");
+    }
+
+    /**
+     * Books loaded upfront, and the ids written by the batch since.
+     */
+    private static final class BatchContext {
+
+        private final Map<Long, Book> prefetched;
+
+        private final Set<Long> written = new HashSet<>();
+
+        private BatchContext(Map<Long, Book> prefetched) {
+            this.prefetched = prefetched;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.groupeisi.m2gl.service;
+
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import com.groupeisi.m2gl.domain.BookChangedEvent;
+import com.groupeisi.m2gl.service.dto.BookChangeDTO;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service pushing the committed book writes to the clients following them as Server-Sent Events.
+ * <p>
+ * Every change gets the next event id and is kept in a bounded replay buffer, so that a client reconnecting with the
+ * last id it received gets the changes it missed. Changes are queued per client and sent from a pool of its own, never
+ * from the writing thread: a client letting more than {@code application.book-changes.max-pending-events} changes pile
+ * up is disconnected, and resumes from its last event id when it reconnects.
+ * <p>
+ * The pool has at most {@code application.book-changes.sender-threads} threads, so that slow clients blocking their
+ * sends only delay the other clients, never the {@code @Async} tasks of the shared task executor. A client is
+ * disconnected when no more sends can be queued.
+ */
+@Service
+public class BookChangeFeedService implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookChangeFeedService.class);
+
+    /**
+     * Name of the event telling a client that the changes it missed are no longer retained.
+     */
+    public static final String RESET_EVENT = "reset";
+
+    private final ApplicationProperties.BookChanges properties;
+
+    private final ThreadPoolTaskExecutor senderExecutor;
+
+    private final Deque<Change> replay = new ArrayDeque<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private long lastEventId;
+
+    public BookChangeFeedService(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getBookChanges();
+        // A client has at most one send queued or running
+        this.senderExecutor = new ThreadPoolTaskExecutor();
+        senderExecutor.setCorePoolSize(properties.getSenderThreads());
+        senderExecutor.setMaxPoolSize(properties.getSenderThreads());
+        senderExecutor.setQueueCapacity(properties.getSenderQueueCapacity());
+        senderExecutor.setAllowCoreThreadTimeOut(true);
+        senderExecutor.setThreadNamePrefix("book-changes-");
+        senderExecutor.initialize();
+    }
+
+    @Override
+    public void destroy() {
+        senderExecutor.shutdown();
+    }
+
+    /**
+     * Publish a committed book write to the subscribers.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        BookChangeDTO change = BookChangeDTO.of(event);
+        synchronized (this) {
+            Change next = new Change(++lastEventId, change);
+            replay.addLast(next);
+            if (replay.size() > properties.getReplayCapacity()) {
+                replay.removeFirst();
+            }
+            subscribers.forEach(subscriber -> subscriber.offer(next));
+        }
+    }
+
+    /**
+     * Follow the book changes.
+     *
+     * @param lastEventId the id of the last event received before a reconnection, or {@code null}.
+     * @return the emitter sending the changes following {@code lastEventId}, then every new change.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        synchronized (this) {
+            if (lastEventId != null) {
+                Change oldest = replay.peekFirst();
+                // Ids restart with the application: an id from the future means the client missed a restart
+                if (lastEventId > this.lastEventId || (oldest != null && lastEventId < oldest.id - 1)) {
+                    subscriber.replay(List.of(new Change(this.lastEventId, null)));
+                } else {
+                    subscriber.replay(replay.stream().filter(change -> change.id > lastEventId).toList());
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        LOG.debug("Book changes followed by {} clients", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * A change with its event id, a {@code null} change being a reset.
+     */
+    private record Change(long id, BookChangeDTO change) {
+        private SseEmitter.SseEventBuilder toEvent() {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().id(Long.toString(id));
+            if (change == null) {
+                return event.name(RESET_EVENT).data(id);
+            }
+            return event.name(change.getType().name().toLowerCase(Locale.ROOT)).data(change, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    /**
+     * A client, with the changes not sent to it yet.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Deque<Change> pending = new ArrayDeque<>();
+
+        /**
+         * Changes replayed on subscription and not sent yet, allowed on top of the pending changes: they are at the head
+         * of the queue, sent before any new change.
+         */
+        private int replayed;
+
+        private boolean draining;
+
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void replay(List<Change> changes) {
+            if (changes.isEmpty()) {
+                return;
+            }
+            synchronized (this) {
+                replayed += changes.size();
+                pending.addAll(changes);
+            }
+            scheduleDrain();
+        }
+
+        private void offer(Change change) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.size() - replayed >= properties.getMaxPendingEvents()) {
+                    LOG.debug("Book changes client too slow, disconnecting it");
+                    closed = true;
+                    pending.clear();
+                    replayed = 0;
+                } else {
+                    pending.addLast(change);
+                }
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            synchronized (this) {
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                senderExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                LOG.warn("Book changes could not be sent, disconnecting a client : {}", e.getMessage());
+                synchronized (this) {
+                    closed = true;
+                    pending.clear();
+                    replayed = 0;
+                }
+                close();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Change next;
+                synchronized (this) {
+                    next = closed ? null : pending.pollFirst();
+                    if (next != null && replayed > 0) {
+                        replayed--;
+                    }
+                    if (next == null) {
+                        draining = false;
+                        if (!closed) {
+                            return;
+                        }
+                        break;
+                    }
+                }
+                try {
+                    emitter.send(next.toEvent());
+                } catch (IOException | IllegalStateException e) {
+                    LOG.debug("Book changes client gone : {}", e.getMessage());
+                    synchronized (this) {
+                        closed = true;
+                        pending.clear();
+                        replayed = 0;
+                        draining = false;
+                    }
+                    break;
+                }
+            }
+            close();
+        }
+
+        private void close() {
+            subscribers.remove(this);
+            emitter.complete();
+        }
+    }
+}
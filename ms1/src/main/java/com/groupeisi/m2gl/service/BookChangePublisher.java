@@ -0,0 +1,127 @@
+package com.groupeisi.m2gl.service;
+
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import com.groupeisi.m2gl.domain.BookChangedEvent;
+import com.groupeisi.m2gl.service.dto.BookChangeDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * In-process publisher of the committed book writes to the GraphQL subscribers.
+ * <p>
+ * Every write of the books, through JPA or a bulk delete, is published as a {@link BookChangedEvent}; this service
+ * fans the committed ones out to the subscribers whose filter they match, the filter running before any buffering.
+ * Each subscriber has its own buffer of {@code application.book-changes.max-pending-events} changes: when a slow
+ * subscriber fills it, the new changes are dropped or its subscription ends with an error, following
+ * {@code application.book-changes.subscription-overflow}.
+ */
+@Service
+public class BookChangePublisher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookChangePublisher.class);
+
+    private final ApplicationProperties.BookChanges properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public BookChangePublisher(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.properties = applicationProperties.getBookChanges();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Publish a committed book write to the subscribers.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        BookChangeDTO change = BookChangeDTO.of(event);
+        // A sink only accepts one emitting thread at a time
+        synchronized (this) {
+            subscribers.forEach(subscriber -> subscriber.offer(change));
+        }
+    }
+
+    /**
+     * Follow the book changes.
+     *
+     * @param filter the changes to send.
+     * @return the changes matching the filter, committed after the subscription.
+     */
+    public Flux<BookChangeDTO> subscribe(Predicate<BookChangeDTO> filter) {
+        return Flux.defer(() -> {
+            Subscriber subscriber = new Subscriber(filter);
+            subscribers.add(subscriber);
+            LOG.debug("Book changes subscribed by {} clients", subscribers.size());
+            return subscriber.sink.asFlux().doFinally(signal -> subscribers.remove(subscriber));
+        });
+    }
+
+    private void count(String result) {
+        Counter.builder("book.changes.subscriptions.overflow")
+            .description("Book changes not sent to a slow GraphQL subscriber")
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * A subscriber, with its filter and its bounded buffer.
+     */
+    private final class Subscriber {
+
+        private final Predicate<BookChangeDTO> filter;
+
+        private final Sinks.Many<BookChangeDTO> sink = Sinks.many()
+            .unicast()
+            .onBackpressureBuffer(new ArrayBlockingQueue<>(properties.getMaxPendingEvents()));
+
+        private Subscriber(Predicate<BookChangeDTO> filter) {
+            this.filter = filter;
+        }
+
+        private void offer(BookChangeDTO change) {
+            if (!filter.test(change)) {
+                return;
+            }
+            Sinks.EmitResult result = sink.tryEmitNext(change);
+            if (result != Sinks.EmitResult.FAIL_OVERFLOW) {
+                return;
+            }
+            if (properties.getSubscriptionOverflow() == ApplicationProperties.BookChanges.Overflow.DROP) {
+                count("dropped");
+                return;
+            }
+            LOG.debug("Book changes subscriber too slow, ending its subscription");
+            count("disconnected");
+            subscribers.remove(this);
+            sink.tryEmitError(new SlowSubscriberException(properties.getMaxPendingEvents()));
+        }
+    }
+
+    /**
+     * Thrown to a subscriber that let too many changes pile up; it may subscribe again.
+     */
+    public static class SlowSubscriberException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public SlowSubscriberException(int maxPendingEvents) {
+            super("More than " + maxPendingEvents + " book changes waiting, the subscription is ended");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.groupeisi.m2gl.service;
+
+import com.groupeisi.m2gl.domain.BookChangedEvent;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Version of the books of this instance, bumped by every committed book write.
+ * <p>
+ * Every write path publishes a {@link BookChangedEvent}: the JPA entity listener for the saves and deletes, the callers
+ * of the bulk deletes otherwise. A cache tags what it reads with the version taken before reading, and drops it once
+ * the version has changed: a read racing with a committing write is never kept past the write.
+ */
+@Service
+public class BookChangeVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * @return the current version, to take before reading the books.
+     */
+    public long get() {
+        return version.get();
+    }
+
+    /**
+     * Bump the version once a book write is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,67 @@
+package com.groupeisi.m2gl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import com.groupeisi.m2gl.domain.BookChangedEvent;
+import com.groupeisi.m2gl.service.criteria.BookCriteria;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cache of the number of books matching some criteria, for the offset pages read with {@link CountMode#CACHED}.
+ * <p>
+ * Every committed book write of this instance invalidates all the counts. A count computed while a write was committing
+ * is not kept. Writes of the other instances are only seen once the count expires, after
+ * {@code application.pagination.count-cache-ttl}.
+ */
+@Service
+public class BookCountCache {
+
+    private final Cache<BookCriteria, CachedCount> counts;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public BookCountCache(ApplicationProperties applicationProperties) {
+        this.counts = Caffeine.newBuilder()
+            .maximumSize(applicationProperties.getPagination().getCountCacheMaxEntries())
+            .expireAfterWrite(applicationProperties.getPagination().getCountCacheTtl())
+            .build();
+    }
+
+    /**
+     * Get the number of books matching the criteria, counting them if it is not cached.
+     *
+     * @param criteria the criteria, {@code null} for all the books.
+     * @param count the count query.
+     * @return the number of matching books.
+     */
+    public long get(BookCriteria criteria, LongSupplier count) {
+        // Criteria are mutable: the key is a copy
+        BookCriteria key = criteria != null ? criteria.copy() : new BookCriteria();
+        long current = generation.get();
+        CachedCount cached = counts.getIfPresent(key);
+        if (cached != null && cached.generation == current) {
+            return cached.count;
+        }
+        long total = count.getAsLong();
+        counts.put(key, new CachedCount(current, total));
+        return total;
+    }
+
+    /**
+     * Invalidate the counts once a book write is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        generation.incrementAndGet();
+        counts.invalidateAll();
+    }
+
+    /**
+     * A count, with the generation of the writes it saw.
+     */
+    private record CachedCount(long generation, long count) {}
+}
@@ -0,0 +1,221 @@
+package com.groupeisi.m2gl.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service streaming the whole book catalogue to an {@link OutputStream}, in constant memory.
+ * <p>
+ * Rows are read from a forward-only JPA stream and detached from the persistence context as soon as they are written,
+ * so the heap used by an export does not grow with the number of books.
+ */
+@Service
+public class BookExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookExportService.class);
+
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final BookRepository bookRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    public BookExportService(
+        BookRepository bookRepository,
+        EntityManager entityManager,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry
+    ) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Write every book to the given stream.
+     *
+     * @param format the output format.
+     * @param out the stream to write to, it is flushed but not closed.
+     * @return the number of exported books.
+     * @throws IOException if the stream cannot be written.
+     */
+    @Transactional(readOnly = true)
+    public long export(BookFileFormat format, OutputStream out) throws IOException {
+        LOG.debug("Request to export all Books as {}", format);
+        long start = System.nanoTime();
+        long rows;
+        try (Stream<Book> books = bookRepository.streamAllBy()) {
+            rows = format == BookFileFormat.CSV ? writeCsv(books.iterator(), out) : writeNdjson(books.iterator(), out);
+        }
+        recordMetrics(format, rows, System.nanoTime() - start);
+        return rows;
+    }
+
+    /**
+     * Write only the given fields of every book to the given stream.
+     * <p>
+     * Only the requested columns are selected, and no entity is loaded.
+     *
+     * @param format the output format.
+     * @param fields the fields to write, among {@link BookRepository#PROJECTABLE_FIELDS}, in order.
+     * @param out the stream to write to, it is flushed but not closed.
+     * @return the number of exported books.
+     * @throws IOException if the stream cannot be written.
+     */
+    @Transactional(readOnly = true)
+    public long export(BookFileFormat format, List<String> fields, OutputStream out) throws IOException {
+        LOG.debug("Request to export the fields {} of all Books as {}", fields, format);
+        long start = System.nanoTime();
+        long rows;
+        try (Stream<Tuple> books = bookRepository.streamProjected(fields)) {
+            rows = format == BookFileFormat.CSV
+                ? writeCsv(books.iterator(), fields, out)
+                : writeNdjson(books.iterator(), fields, out);
+        }
+        recordMetrics(format, rows, System.nanoTime() - start);
+        return rows;
+    }
+
+    private long writeNdjson(Iterator<Book> books, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (books.hasNext()) {
+                Book book = books.next();
+                generator.writeObject(book);
+                generator.writeRaw('\n');
+                entityManager.detach(book);
+                if (++rows % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<Book> books, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(BookFileFormat.CSV_HEADER);
+        writer.write('\n');
+        while (books.hasNext()) {
+            Book book = books.next();
+            writer.write(String.valueOf(book.getId()));
+            writer.write(',');
+            writeCsvValue(writer, book.getTitle());
+            writer.write(',');
+            writeCsvValue(writer, book.getPrix());
+            writer.write(',');
+            writeCsvValue(writer, book.getAuthor());
+            writer.write(',');
+            writeCsvValue(writer, book.getDate_pub());
+            writer.write('\n');
+            entityManager.detach(book);
+            if (++rows % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private long writeNdjson(Iterator<Tuple> books, List<String> fields, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (books.hasNext()) {
+                Tuple book = books.next();
+                generator.writeStartObject();
+                for (String field : fields) {
+                    generator.writeObjectField(field, book.get(field));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++rows % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<Tuple> books, List<String> fields, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", fields));
+        writer.write('\n');
+        while (books.hasNext()) {
+            Tuple book = books.next();
+            for (int i = 0; i < fields.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(writer, book.get(fields.get(i)));
+            }
+            writer.write('\n');
+            if (++rows % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void recordMetrics(BookFileFormat format, long rows, long elapsedNanos) {
+        String formatTag = format.getExtension();
+        Counter.builder("book.export.rows")
+            .description("Number of books written by catalogue exports")
+            .tag("format", formatTag)
+            .register(meterRegistry)
+            .increment(rows);
+        double seconds = Math.max(elapsedNanos, 1L) / 1_000_000_000d;
+        DistributionSummary.builder("book.export.throughput")
+            .description("Rows per second of each catalogue export")
+            .baseUnit("rows/s")
+            .tag("format", formatTag)
+            .register(meterRegistry)
+            .record(rows / seconds);
+        LOG.debug("Exported {} Books as {} in {} s", rows, format, seconds);
+    }
+}
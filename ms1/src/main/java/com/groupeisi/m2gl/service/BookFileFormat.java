@@ -0,0 +1,61 @@
+package com.groupeisi.m2gl.service;
+
+import java.util.Locale;
+import java.util.Optional;
+import org.springframework.http.MediaType;
+
+/**
+ * Line-oriented file formats used to export and import books in bulk.
+ */
+public enum BookFileFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    /**
+     * Columns of the CSV format, in order.
+     */
+    public static final String CSV_HEADER = "id,title,prix,author,date_pub";
+
+    private final MediaType mediaType;
+
+    private final String extension;
+
+    BookFileFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Resolve a format from its name, e.g. {@code ndjson} or {@code csv}.
+     *
+     * @param name the name of the format, case insensitive.
+     * @return the format.
+     * @throws IllegalArgumentException if the format is not supported.
+     */
+    public static BookFileFormat fromName(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Resolve a format from a request content type.
+     *
+     * @param mediaType the content type.
+     * @return the matching format, if any.
+     */
+    public static Optional<BookFileFormat> fromMediaType(MediaType mediaType) {
+        for (BookFileFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(mediaType)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,275 @@
+package com.groupeisi.m2gl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import com.groupeisi.m2gl.service.dto.BookImportReportDTO;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service importing books in bulk from a line-oriented input.
+ * <p>
+ * The input is parsed as a stream and valid rows are written in fixed-size chunks, each chunk in its own transaction
+ * so that the inserts are sent as JDBC batches. A failing chunk is rolled back on its own: the chunks already committed
+ * are kept and the import goes on with the next rows.
+ */
+@Service
+public class BookImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookImportService.class);
+
+    private final BookRepository bookRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate chunkTransactionTemplate;
+
+    public BookImportService(
+        BookRepository bookRepository,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.bookRepository = bookRepository;
+        this.objectMapper = objectMapper;
+        this.applicationProperties = applicationProperties;
+        this.chunkTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Import the books read from the given input.
+     *
+     * @param format the input format.
+     * @param reader the input, it is read until its end but not closed.
+     * @return the import report.
+     * @throws IOException if the input cannot be read.
+     */
+    public BookImportReportDTO importBooks(BookFileFormat format, Reader reader) throws IOException {
+        LOG.debug("Request to import Books as {}", format);
+        ImportSession session = new ImportSession(
+            applicationProperties.getBookImport().getChunkSize(),
+            applicationProperties.getBookImport().getMaxReportedRejections()
+        );
+        BufferedReader input = new BufferedReader(reader);
+        if (format == BookFileFormat.CSV) {
+            readCsv(input, session);
+        } else {
+            readNdjson(input, session);
+        }
+        session.flush();
+        LOG.debug("Imported Books : {}", session.report);
+        return session.report;
+    }
+
+    private void readNdjson(BufferedReader input, ImportSession session) throws IOException {
+        ObjectReader bookReader = objectMapper.readerFor(Book.class);
+        String line;
+        long lineNumber = 0;
+        while ((line = input.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                Book book = bookReader.readValue(line);
+                if (book == null) {
+                    session.reject(lineNumber, "Not a book: null");
+                } else {
+                    session.accept(lineNumber, book);
+                }
+            } catch (JsonProcessingException e) {
+                session.reject(lineNumber, e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader input, ImportSession session) throws IOException {
+        CsvRecordReader records = new CsvRecordReader(input);
+        List<String> header = records.next();
+        if (header == null) {
+            return;
+        }
+        int[] columns = new int[] {
+            header.indexOf("id"),
+            header.indexOf("title"),
+            header.indexOf("prix"),
+            header.indexOf("author"),
+            header.indexOf("date_pub"),
+        };
+        List<String> record;
+        while ((record = records.next()) != null) {
+            long lineNumber = records.getLineNumber();
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            try {
+                Book book = new Book();
+                String id = column(record, columns[0]);
+                book.setId(id != null ? Long.valueOf(id) : null);
+                book.setTitle(column(record, columns[1]));
+                String prix = column(record, columns[2]);
+                book.setPrix(prix != null ? Double.valueOf(prix) : null);
+                book.setAuthor(column(record, columns[3]));
+                String datePub = column(record, columns[4]);
+                book.setDate_pub(datePub != null ? LocalDate.parse(datePub) : null);
+                session.accept(lineNumber, book);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                session.reject(lineNumber, e.getMessage());
+            }
+        }
+    }
+
+    private static String column(List<String> record, int index) {
+        if (index < 0 || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    /**
+     * State of a running import: the pending chunk and the report.
+     */
+    private final class ImportSession {
+
+        private final int chunkSize;
+
+        private final int maxReportedRejections;
+
+        private final BookImportReportDTO report = new BookImportReportDTO();
+
+        private List<Book> chunk;
+
+        private ImportSession(int chunkSize, int maxReportedRejections) {
+            this.chunkSize = chunkSize;
+            this.maxReportedRejections = maxReportedRejections;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        private void accept(long lineNumber, Book book) {
+            if (book.getId() != null) {
+                reject(lineNumber, "A new book cannot already have an ID");
+                return;
+            }
+            chunk.add(book);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void reject(long lineNumber, String reason) {
+            report.setRejected(report.getRejected() + 1);
+            if (report.getRejections().size() < maxReportedRejections) {
+                report.getRejections().add(new BookImportReportDTO.Rejection(lineNumber, reason));
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Book> books = chunk;
+            chunk = new ArrayList<>(chunkSize);
+            int index = report.getChunks().size();
+            long start = System.nanoTime();
+            try {
+                chunkTransactionTemplate.executeWithoutResult(status -> bookRepository.saveAll(books));
+                report.setAccepted(report.getAccepted() + books.size());
+                report.getChunks().add(new BookImportReportDTO.Chunk(index, books.size(), true, elapsedMillis(start), null));
+            } catch (RuntimeException e) {
+                LOG.warn("Book import chunk {} of {} rows was rolled back : {}", index, books.size(), e.getMessage());
+                report.setRejected(report.getRejected() + books.size());
+                report.getChunks().add(new BookImportReportDTO.Chunk(index, books.size(), false, elapsedMillis(start), e.getMessage()));
+            }
+        }
+
+        private long elapsedMillis(long start) {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma separated fields, optionally quoted, with doubled quotes as escapes.
+     */
+    private static final class CsvRecordReader {
+
+        private final BufferedReader reader;
+
+        private long lineNumber;
+
+        private boolean eof;
+
+        private CsvRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private long getLineNumber() {
+            return lineNumber;
+        }
+
+        private List<String> next() throws IOException {
+            if (eof) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean read = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                read = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    lineNumber++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            eof = true;
+            if (!read) {
+                return null;
+            }
+            lineNumber++;
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.groupeisi.m2gl.service;
+
+import com.groupeisi.m2gl.domain.*; // for static metamodels
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import com.groupeisi.m2gl.service.criteria.BookCriteria;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Service for executing complex queries for {@link Book} entities in the database.
+ * The main input is a {@link BookCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link Book} or a {@link Page} of {@link Book} which fulfills the criteria.
+ * <p>
+ * Pages sorted by id are read with a keyset ({@code after} the last id of the previous page), other sorts with an
+ * offset and, depending on the {@link CountMode}, an exact, a cached or no count.
+ */
+@Service
+@Transactional(readOnly = true)
+public class BookQueryService extends QueryService<Book> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookQueryService.class);
+
+    private final BookRepository bookRepository;
+
+    private final BookCountCache bookCountCache;
+
+    private final EntityManager entityManager;
+
+    public BookQueryService(BookRepository bookRepository, BookCountCache bookCountCache, EntityManager entityManager) {
+        this.bookRepository = bookRepository;
+        this.bookCountCache = bookCountCache;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Return a keyset page of {@link Book} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after the id of the last book of the previous page, or {@code null} for the first page.
+     * @param direction the order of the ids.
+     * @param limit the maximum number of books.
+     * @return the matching entities.
+     */
+    public List<Book> findByCriteria(BookCriteria criteria, Long after, Sort.Direction direction, int limit) {
+        LOG.debug("find by criteria : {}, after : {}", criteria, after);
+        final Specification<Book> specification = createKeysetSpecification(criteria, after, direction);
+        return bookRepository.findBy(specification, query -> query.sortBy(Sort.by(direction, "id")).limit(limit).all());
+    }
+
+    /**
+     * Return a {@link Page} of {@link Book} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    public Page<Book> findByCriteria(BookCriteria criteria, Pageable page) {
+        LOG.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<Book> specification = createSpecification(criteria);
+        return bookRepository.findAll(specification, page);
+    }
+
+    /**
+     * Return a page of {@link Book} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @param count how the total number of matching entities is obtained.
+     * @return the matching entities, as a {@link Page} unless {@code count} is {@link CountMode#NONE}.
+     */
+    public Slice<Book> findByCriteria(BookCriteria criteria, Pageable page, CountMode count) {
+        if (count == CountMode.EXACT) {
+            return findByCriteria(criteria, page);
+        }
+        LOG.debug("find by criteria : {}, page: {}, count : {}", criteria, page, count);
+        final Specification<Book> specification = createSpecification(criteria);
+        Slice<Book> books = bookRepository.findSlice(specification, page);
+        if (count == CountMode.NONE) {
+            return books;
+        }
+        return PageableExecutionUtils.getPage(books.getContent(), page, () ->
+            bookCountCache.get(criteria, () -> bookRepository.count(specification))
+        );
+    }
+
+    /**
+     * Return a keyset page of the given fields of the books which match the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields the fields to select.
+     * @param after the id of the last book of the previous page, or {@code null} for the first page.
+     * @param direction the order of the ids.
+     * @param limit the maximum number of books.
+     * @return the matching rows.
+     */
+    public List<Tuple> findFieldsByCriteria(BookCriteria criteria, List<String> fields, Long after, Sort.Direction direction, int limit) {
+        LOG.debug("find fields {} by criteria : {}, after : {}", fields, criteria, after);
+        final Specification<Book> specification = createKeysetSpecification(criteria, after, direction);
+        return bookRepository.findProjected(fields, specification, Sort.by(direction, "id"), 0, limit);
+    }
+
+    /**
+     * Return the books of the given ids that are in the second level cache, read from it without querying the database.
+     * The other ids are left out, to be read with {@link #findFieldsByCriteria(BookCriteria, List, Long, Sort.Direction, int)}.
+     * @param ids the ids of the books.
+     * @return the cached books, in no particular order.
+     */
+    public List<Book> findCachedByIds(Collection<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        List<Long> cached = ids.stream().filter(id -> cache.contains(Book.class, id)).toList();
+        if (cached.isEmpty()) {
+            return List.of();
+        }
+        LOG.debug("find cached books : {}", cached);
+        // One lookup per id: Hibernate 6.6 multi-loads skip the second level cache. A book evicted since the check above
+        // is read from the database
+        return cached.stream().map(id -> entityManager.find(Book.class, id)).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Stream the given fields of the books which match the criteria, in the order of the ids, as they are read from the
+     * database: each row is handed to the consumer within the read-only transaction, without holding the others.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields the fields to select.
+     * @param after the id of the last book already read, or {@code null} to start with the first one.
+     * @param limit the maximum number of books.
+     * @param consumer the consumer of the rows.
+     * @return the number of rows read.
+     */
+    public long streamFieldsByCriteria(BookCriteria criteria, List<String> fields, Long after, int limit, Consumer<Tuple> consumer) {
+        LOG.debug("stream fields {} by criteria : {}, after : {}", fields, criteria, after);
+        final Specification<Book> specification = createKeysetSpecification(criteria, after, Sort.Direction.ASC);
+        long count = 0;
+        try (Stream<Tuple> rows = bookRepository.streamProjected(fields, specification, Sort.by(Sort.Direction.ASC, "id"), limit)) {
+            Iterator<Tuple> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Return a {@link Page} of the given fields of the books which match the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields the fields to select.
+     * @param page The page, which should be returned.
+     * @return the matching rows.
+     */
+    public Page<Tuple> findFieldsByCriteria(BookCriteria criteria, List<String> fields, Pageable page) {
+        LOG.debug("find fields {} by criteria : {}, page: {}", fields, criteria, page);
+        final Specification<Book> specification = createSpecification(criteria);
+        List<Tuple> rows = bookRepository.findProjected(fields, specification, page.getSort(), page.getOffset(), page.getPageSize());
+        return PageableExecutionUtils.getPage(rows, page, () -> bookRepository.count(specification));
+    }
+
+    /**
+     * Return a page of the given fields of the books which match the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields the fields to select.
+     * @param page The page, which should be returned.
+     * @param count how the total number of matching entities is obtained.
+     * @return the matching rows, as a {@link Page} unless {@code count} is {@link CountMode#NONE}.
+     */
+    public Slice<Tuple> findFieldsByCriteria(BookCriteria criteria, List<String> fields, Pageable page, CountMode count) {
+        if (count == CountMode.EXACT) {
+            return findFieldsByCriteria(criteria, fields, page);
+        }
+        LOG.debug("find fields {} by criteria : {}, page: {}, count : {}", fields, criteria, page, count);
+        final Specification<Book> specification = createSpecification(criteria);
+        // One extra row tells whether there is a next page
+        List<Tuple> rows = bookRepository.findProjected(fields, specification, page.getSort(), page.getOffset(), page.getPageSize() + 1);
+        boolean hasNext = rows.size() > page.getPageSize();
+        if (hasNext) {
+            rows = rows.subList(0, page.getPageSize());
+        }
+        if (count == CountMode.NONE) {
+            return new SliceImpl<>(rows, page, hasNext);
+        }
+        return PageableExecutionUtils.getPage(rows, page, () -> bookCountCache.get(criteria, () -> bookRepository.count(specification)));
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    public long countByCriteria(BookCriteria criteria) {
+        LOG.debug("count by criteria : {}", criteria);
+        final Specification<Book> specification = createSpecification(criteria);
+        return bookRepository.count(specification);
+    }
+
+    private Specification<Book> createKeysetSpecification(BookCriteria criteria, Long after, Sort.Direction direction) {
+        Specification<Book> specification = createSpecification(criteria);
+        if (after != null) {
+            specification = specification.and(
+                direction.isAscending() ? greaterThan(root -> root.get(Book_.id), after) : lessThan(root -> root.get(Book_.id), after)
+            );
+        }
+        return specification;
+    }
+
+    /**
+     * Function to convert {@link BookCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Book> createSpecification(BookCriteria criteria) {
+        Specification<Book> specification = Specification.where(null);
+        if (criteria != null) {
+            specification = Specification.allOf(
+                buildRangeSpecification(criteria.getId(), Book_.id),
+                buildRangeSpecification(criteria.getPrix(), Book_.prix),
+                buildSpecification(criteria.getAuthor(), Book_.author),
+                buildRangeSpecification(criteria.getDatePub(), Book_.date_pub)
+            );
+        }
+        return specification;
+    }
+}
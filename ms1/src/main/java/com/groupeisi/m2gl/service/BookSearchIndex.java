@@ -0,0 +1,390 @@
+package com.groupeisi.m2gl.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram inverted index over the title and author of the books.
+ * <p>
+ * Values are normalized (lower case, without accents) and split in overlapping 3-character grams. A query is answered
+ * from the posting lists of its own trigrams, so its cost depends on the number of candidates and not on the number of
+ * books. Results are ranked:
+ * <ol>
+ *     <li>value equal to the query,</li>
+ *     <li>value starting with the query,</li>
+ *     <li>a word of the value starting with the query,</li>
+ *     <li>value containing the query,</li>
+ *     <li>value sharing enough trigrams with the query (typos), by similarity.</li>
+ * </ol>
+ * Entries carry the entity version so that a stale row read by the initial load never replaces a newer write.
+ * <p>
+ * To keep the footprint small, an entry only holds the normalized values and their number of trigrams, and each
+ * posting list is a sorted array of primitive ids. Queries shorter than a trigram are answered from the trigrams
+ * starting or ending with them, among the indexed trigrams and not the books: a single character matches nothing, and
+ * values shorter than a trigram are only found by a query of at least their length.
+ */
+public class BookSearchIndex {
+
+    public enum Field {
+        TITLE,
+        AUTHOR,
+    }
+
+    private static final int GRAM = 3;
+
+    /**
+     * Minimal trigram similarity of a fuzzy match, same default as PostgreSQL {@code pg_trgm}.
+     */
+    private static final double SIMILARITY_THRESHOLD = 0.3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private final Map<Field, Map<String, Postings>> postings = new EnumMap<>(Field.class);
+
+    private final Set<Long> removedWhileLoading = new HashSet<>();
+
+    private boolean loading;
+
+    private boolean ready;
+
+    public BookSearchIndex() {
+        for (Field field : Field.values()) {
+            postings.put(field, new HashMap<>());
+        }
+    }
+
+    /**
+     * Index a written book, unless a more recent version is already indexed.
+     */
+    public void put(Long id, Long version, String title, String author) {
+        lock.writeLock().lock();
+        try {
+            index(id, version, title, author);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a deleted book.
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            unindex(id, entries.remove(id));
+            if (loading) {
+                removedWhileLoading.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Start a full load: writes keep being applied while the rows are read.
+     */
+    public void startLoading() {
+        lock.writeLock().lock();
+        try {
+            loading = true;
+            removedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index a row read by the full load, unless it was deleted since the load started.
+     */
+    public void load(Long id, Long version, String title, String author) {
+        // Checked under the same lock as the insert, so that a concurrent remove cannot fall in between
+        lock.writeLock().lock();
+        try {
+            if (!removedWhileLoading.contains(id)) {
+                index(id, version, title, author);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishLoading() {
+        lock.writeLock().lock();
+        try {
+            loading = false;
+            removedWhileLoading.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} once a full load has completed.
+     */
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search the books matching the query in any of the given fields.
+     *
+     * @param query the text to look for.
+     * @param fields the fields to search in.
+     * @param limit the maximal number of ids to return.
+     * @return the ids of the matching books, the most relevant first.
+     */
+    public List<Long> search(String query, Collection<Field> fields, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery == null || normalizedQuery.isBlank() || limit < 1) {
+            return List.of();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Field field : fields) {
+                score(field, normalizedQuery, scores);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores
+            .entrySet()
+            .stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    private void score(Field field, String query, Map<Long, Double> scores) {
+        Map<String, Postings> fieldPostings = postings.get(field);
+        Set<String> queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty()) {
+            scoreShortQuery(field, query, fieldPostings, scores);
+            return;
+        }
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Postings ids = fieldPostings.get(trigram);
+            if (ids != null) {
+                ids.forEach(id -> shared.merge(id, 1, Integer::sum));
+            }
+        }
+        shared.forEach((id, count) -> {
+            Entry entry = entries.get(id);
+            String value = entry.fieldValue(field);
+            double similarity = similarity(queryTrigrams.size(), entry.fieldTrigramCount(field), count);
+            if (count == queryTrigrams.size() && value.contains(query)) {
+                scores.merge(id, rank(value, query) + similarity, Math::max);
+            } else if (similarity >= SIMILARITY_THRESHOLD) {
+                scores.merge(id, similarity, Math::max);
+            }
+        });
+    }
+
+    /**
+     * Query shorter than a trigram: only a substring match is possible, shorter values first. A value containing the
+     * query holds a trigram starting with it, or ending with it when the query ends the value.
+     */
+    private void scoreShortQuery(Field field, String query, Map<String, Postings> fieldPostings, Map<Long, Double> scores) {
+        if (query.length() < GRAM - 1) {
+            return;
+        }
+        Set<Long> candidates = new HashSet<>();
+        fieldPostings.forEach((trigram, ids) -> {
+            if (trigram.startsWith(query) || trigram.endsWith(query)) {
+                ids.forEach(candidates::add);
+            }
+        });
+        for (Long id : candidates) {
+            String value = entries.get(id).fieldValue(field);
+            if (value.contains(query)) {
+                scores.merge(id, rank(value, query) + (double) query.length() / value.length(), Math::max);
+            }
+        }
+    }
+
+    /**
+     * Base score of a substring match, above any similarity (which is at most 1).
+     */
+    private static double rank(String value, String query) {
+        if (value.equals(query)) {
+            return 4;
+        }
+        if (value.startsWith(query)) {
+            return 3;
+        }
+        for (int i = value.indexOf(query); i >= 0; i = value.indexOf(query, i + 1)) {
+            if (!Character.isLetterOrDigit(value.charAt(i - 1))) {
+                return 2;
+            }
+        }
+        return 1;
+    }
+
+    private static double similarity(int queryTrigrams, int valueTrigrams, int shared) {
+        int union = queryTrigrams + valueTrigrams - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+
+    /**
+     * Index a book, unless a more recent version is already indexed. Must hold the write lock.
+     */
+    private void index(Long id, Long version, String title, String author) {
+        Entry current = entries.get(id);
+        if (current != null && compareVersions(current.version, version) > 0) {
+            return;
+        }
+        unindex(id, current);
+        Entry entry = new Entry(version, normalize(title), normalize(author));
+        entries.put(id, entry);
+        for (Field field : Field.values()) {
+            for (String trigram : trigrams(entry.fieldValue(field))) {
+                postings.get(field).computeIfAbsent(trigram, key -> new Postings()).add(id);
+            }
+        }
+    }
+
+    private void unindex(Long id, Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        for (Field field : Field.values()) {
+            Map<String, Postings> fieldPostings = postings.get(field);
+            for (String trigram : trigrams(entry.fieldValue(field))) {
+                Postings ids = fieldPostings.get(trigram);
+                if (ids != null && ids.remove(id)) {
+                    fieldPostings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static int compareVersions(Long current, Long candidate) {
+        return Comparator.nullsFirst(Comparator.<Long>naturalOrder()).compare(current, candidate);
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(value.strip(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> trigrams(String value) {
+        if (value == null || value.length() < GRAM) {
+            return Set.of();
+        }
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + GRAM));
+        }
+        return trigrams;
+    }
+
+    private static final class Entry {
+
+        private final Long version;
+
+        private final String title;
+
+        private final String author;
+
+        private final int titleTrigramCount;
+
+        private final int authorTrigramCount;
+
+        private Entry(Long version, String title, String author) {
+            this.version = version;
+            this.title = title;
+            this.author = author;
+            this.titleTrigramCount = trigrams(title).size();
+            this.authorTrigramCount = trigrams(author).size();
+        }
+
+        private String fieldValue(Field field) {
+            return field == Field.TITLE ? title : author;
+        }
+
+        private int fieldTrigramCount(Field field) {
+            return field == Field.TITLE ? titleTrigramCount : authorTrigramCount;
+        }
+    }
+
+    /**
+     * Ids of the books holding a trigram, as a sorted array of primitive longs. Ids loaded in increasing order are
+     * appended.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[2];
+
+        private int size;
+
+        private void add(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        /**
+         * @return {@code true} if no id is left.
+         */
+        private boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+            return size == 0;
+        }
+
+        private void forEach(LongConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(ids[i]);
+            }
+        }
+    }
+}
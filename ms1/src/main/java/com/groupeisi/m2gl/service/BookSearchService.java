@@ -0,0 +1,131 @@
+package com.groupeisi.m2gl.service;
+
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.domain.BookChangedEvent;
+import com.groupeisi.m2gl.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service searching books by title and author through a {@link BookSearchIndex}.
+ * <p>
+ * The index is loaded once the application is ready and then follows every committed book write. Until the load is
+ * complete, searches fall back to the {@code LIKE} queries of {@link BookRepository}.
+ */
+@Service
+public class BookSearchService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookSearchService.class);
+
+    private final BookRepository bookRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final BookSearchIndex index = new BookSearchIndex();
+
+    public BookSearchService(BookRepository bookRepository, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Load every book in the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        long start = System.nanoTime();
+        index.startLoading();
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Book> books = bookRepository.streamAllBy()) {
+                books.forEach(book -> {
+                    index.load(book.getId(), book.getVersion(), book.getTitle(), book.getAuthor());
+                    entityManager.detach(book);
+                });
+            }
+        });
+        index.finishLoading();
+        LOG.info("Book search index loaded with {} books in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Apply a committed book write to the index.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        Book book = event.getBook();
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            index.remove(book.getId());
+        } else {
+            index.put(book.getId(), book.getVersion(), book.getTitle(), book.getAuthor());
+        }
+    }
+
+    /**
+     * Search the books matching the query.
+     *
+     * @param query the text to look for, accents and case are ignored.
+     * @param fields the fields to search in.
+     * @param limit the maximal number of books to return.
+     * @return the matching books, the most relevant first.
+     */
+    public List<Book> search(String query, Collection<BookSearchIndex.Field> fields, int limit) {
+        LOG.debug("Request to search Books for {} in {}", query, fields);
+        if (!index.isReady()) {
+            return searchDatabase(query, fields, limit);
+        }
+        List<Long> ids = index.search(query, fields, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+        // A book deleted since the search is simply left out
+        return ids.stream().map(books::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Search the ids of the books matching the query, without loading the books.
+     *
+     * @param query the text to look for, accents and case are ignored.
+     * @param fields the fields to search in.
+     * @param limit the maximal number of ids to return.
+     * @return the ids of the matching books, the most relevant first.
+     */
+    public List<Long> searchIds(String query, Collection<BookSearchIndex.Field> fields, int limit) {
+        LOG.debug("Request to search Book ids for {} in {}", query, fields);
+        if (!index.isReady()) {
+            return searchDatabase(query, fields, limit).stream().map(Book::getId).toList();
+        }
+        return index.search(query, fields, limit);
+    }
+
+    private List<Book> searchDatabase(String query, Collection<BookSearchIndex.Field> fields, int limit) {
+        Map<Long, Book> books = new LinkedHashMap<>();
+        if (fields.contains(BookSearchIndex.Field.TITLE)) {
+            bookRepository.findByTitleContainingIgnoreCase(query).forEach(book -> books.put(book.getId(), book));
+        }
+        if (fields.contains(BookSearchIndex.Field.AUTHOR)) {
+            bookRepository.findByAuthorContainingIgnoreCase(query).forEach(book -> books.putIfAbsent(book.getId(), book));
+        }
+        return books.values().stream().sorted(Comparator.comparing(Book::getId)).limit(limit).toList();
+    }
+}
@@ -0,0 +1,233 @@
+package com.groupeisi.m2gl.service;
+
+import com.groupeisi.m2gl.service.dto.BookStatisticsDTO;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory aggregate of the book catalogue statistics, updated book by book.
+ * <p>
+ * The aggregated fields of each book are kept, so that an update or a delete removes exactly what the previous state
+ * of the book added. Prices are kept in a sorted multiset for the min and max. Every write costs {@code O(log n)}; the
+ * {@link BookStatisticsDTO} is built on the first read after a write and shared by the following reads.
+ * <p>
+ * A full load is applied row by row while the writes keep being applied: a row is skipped if a more recent version of
+ * the book is already counted, or if the book was deleted since the load started.
+ */
+public class BookStatisticsAggregate {
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private final TreeMap<Double, Long> prices = new TreeMap<>();
+
+    private final Map<String, AuthorAggregate> authors = new HashMap<>();
+
+    private final Map<Integer, Long> years = new HashMap<>();
+
+    private long prixCount;
+
+    private double prixSum;
+
+    private final Set<Long> removedWhileLoading = new HashSet<>();
+
+    private boolean loading;
+
+    /**
+     * Distinguishes the revisions of two instances, or of the same instance after a restart.
+     */
+    private final long epoch = System.currentTimeMillis();
+
+    private long generation;
+
+    private volatile BookStatisticsDTO statistics;
+
+    /**
+     * Count a written book, unless a more recent version is already counted.
+     */
+    public synchronized void put(Long id, Long version, String author, Double prix, LocalDate datePub) {
+        Entry current = entries.get(id);
+        if (current != null && current.version != null && version != null && current.version > version) {
+            return;
+        }
+        subtract(current);
+        Entry entry = new Entry(version, author, prix, datePub != null ? datePub.getYear() : null);
+        entries.put(id, entry);
+        add(entry);
+        changed();
+    }
+
+    /**
+     * Stop counting a deleted book.
+     */
+    public synchronized void remove(Long id) {
+        Entry current = entries.remove(id);
+        if (current != null) {
+            subtract(current);
+            changed();
+        }
+        if (loading) {
+            removedWhileLoading.add(id);
+        }
+    }
+
+    /**
+     * Start a full load: writes keep being applied while the rows are read.
+     */
+    public synchronized void startLoading() {
+        loading = true;
+        removedWhileLoading.clear();
+    }
+
+    /**
+     * Count a row read by the full load, unless the book was deleted since the load started.
+     */
+    public synchronized void load(Long id, Long version, String author, Double prix, LocalDate datePub) {
+        if (!removedWhileLoading.contains(id)) {
+            put(id, version, author, prix, datePub);
+        }
+    }
+
+    public synchronized void finishLoading() {
+        loading = false;
+        removedWhileLoading.clear();
+    }
+
+    /**
+     * @return an identifier changing with every write, for the ETag of the statistics.
+     */
+    public synchronized String getRevision() {
+        return epoch + "-" + generation;
+    }
+
+    /**
+     * @return the current statistics, shared until the next write.
+     */
+    public BookStatisticsDTO getStatistics() {
+        BookStatisticsDTO current = statistics;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (statistics == null) {
+                statistics = build();
+            }
+            return statistics;
+        }
+    }
+
+    private void add(Entry entry) {
+        if (entry.prix != null) {
+            prices.merge(entry.prix, 1L, Long::sum);
+            prixCount++;
+            prixSum += entry.prix;
+        }
+        if (entry.author != null) {
+            authors.computeIfAbsent(entry.author, key -> new AuthorAggregate()).add(entry.prix);
+        }
+        if (entry.year != null) {
+            years.merge(entry.year, 1L, Long::sum);
+        }
+    }
+
+    private void subtract(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        if (entry.prix != null) {
+            prices.computeIfPresent(entry.prix, (prix, count) -> count > 1 ? count - 1 : null);
+            prixCount--;
+            prixSum -= entry.prix;
+        }
+        if (entry.author != null) {
+            authors.computeIfPresent(entry.author, (author, aggregate) -> aggregate.subtract(entry.prix) ? aggregate : null);
+        }
+        if (entry.year != null) {
+            years.computeIfPresent(entry.year, (year, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private void changed() {
+        generation++;
+        statistics = null;
+    }
+
+    private BookStatisticsDTO build() {
+        // Authors with the most books first
+        Map<String, BookStatisticsDTO.AuthorStatistics> authorStatistics = new LinkedHashMap<>();
+        authors
+            .entrySet()
+            .stream()
+            .sorted(
+                Comparator.comparingLong((Map.Entry<String, AuthorAggregate> author) -> author.getValue().count)
+                    .reversed()
+                    .thenComparing(Map.Entry::getKey)
+            )
+            .forEach(author -> authorStatistics.put(author.getKey(), author.getValue().toStatistics()));
+        return new BookStatisticsDTO(
+            entries.size(),
+            prices.isEmpty() ? null : prices.firstKey(),
+            prices.isEmpty() ? null : prices.lastKey(),
+            prixCount == 0 ? null : prixSum / prixCount,
+            Collections.unmodifiableMap(authorStatistics),
+            Collections.unmodifiableMap(new TreeMap<>(years))
+        );
+    }
+
+    private static final class Entry {
+
+        private final Long version;
+
+        private final String author;
+
+        private final Double prix;
+
+        private final Integer year;
+
+        private Entry(Long version, String author, Double prix, Integer year) {
+            this.version = version;
+            this.author = author;
+            this.prix = prix;
+            this.year = year;
+        }
+    }
+
+    private static final class AuthorAggregate {
+
+        private long count;
+
+        private long prixCount;
+
+        private double prixSum;
+
+        private void add(Double prix) {
+            count++;
+            if (prix != null) {
+                prixCount++;
+                prixSum += prix;
+            }
+        }
+
+        /**
+         * @return {@code false} once the author has no book left.
+         */
+        private boolean subtract(Double prix) {
+            count--;
+            if (prix != null) {
+                prixCount--;
+                prixSum -= prix;
+            }
+            return count > 0;
+        }
+
+        private BookStatisticsDTO.AuthorStatistics toStatistics() {
+            return new BookStatisticsDTO.AuthorStatistics(count, prixCount == 0 ? null : prixSum / prixCount);
+        }
+    }
+}
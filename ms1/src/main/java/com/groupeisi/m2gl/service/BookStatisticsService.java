@@ -0,0 +1,111 @@
+package com.groupeisi.m2gl.service;
+
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.domain.BookChangedEvent;
+import com.groupeisi.m2gl.repository.BookRepository;
+import com.groupeisi.m2gl.service.dto.BookStatisticsDTO;
+import jakarta.persistence.EntityManager;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service maintaining the statistics of the book catalogue in a {@link BookStatisticsAggregate}.
+ * <p>
+ * The aggregate is seeded once from the database and then follows every committed book write, so reading the
+ * statistics never queries the database.
+ */
+@Service
+public class BookStatisticsService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookStatisticsService.class);
+
+    private final BookRepository bookRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final BookStatisticsAggregate aggregate = new BookStatisticsAggregate();
+
+    private final Object loadLock = new Object();
+
+    private volatile boolean loaded;
+
+    public BookStatisticsService(BookRepository bookRepository, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Seed the statistics from the database, once. Only the readers wait for the seed: the writes committed meanwhile
+     * are applied to the aggregate as usual, and the rows read are counted one at a time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStatistics() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            long start = System.nanoTime();
+            aggregate.startLoading();
+            try {
+                readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<Book> books = bookRepository.streamAllBy()) {
+                        books.forEach(book -> {
+                            aggregate.load(book.getId(), book.getVersion(), book.getAuthor(), book.getPrix(), book.getDate_pub());
+                            entityManager.detach(book);
+                        });
+                    }
+                });
+            } finally {
+                aggregate.finishLoading();
+            }
+            loaded = true;
+            LOG.info("Book statistics loaded in {} ms", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Apply a committed book write to the statistics.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            aggregate.remove(event.getBook().getId());
+        } else {
+            put(event.getBook());
+        }
+    }
+
+    /**
+     * @return the current statistics.
+     */
+    public BookStatisticsDTO getStatistics() {
+        loadStatistics();
+        return aggregate.getStatistics();
+    }
+
+    /**
+     * @return an identifier changing with every write, for the ETag of the statistics.
+     */
+    public String getRevision() {
+        loadStatistics();
+        return aggregate.getRevision();
+    }
+
+    private void put(Book book) {
+        aggregate.put(book.getId(), book.getVersion(), book.getAuthor(), book.getPrix(), book.getDate_pub());
+    }
+}
@@ -0,0 +1,247 @@
+package com.groupeisi.m2gl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import com.groupeisi.m2gl.security.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service running a write at most once per {@code Idempotency-Key}.
+ * <p>
+ * The result of the first call with a key is kept in a bounded store, evicted after
+ * {@code application.idempotency.ttl}, and returned to the retries with the same key. A retry arriving while the first
+ * call is still running waits for it, until its transaction, if any, is committed, but no longer than
+ * {@code application.idempotency.wait-timeout}: it then fails with {@link KeyInUseException}. Keys are scoped by user and
+ * operation; a call that fails or is rolled back releases its key so that it can be retried.
+ * <p>
+ * A key is bound to the hash of the request payload: a retry sending another payload with the same key fails with
+ * {@link KeyReusedException} instead of getting the result of the first call.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * A call that may throw a checked exception.
+     */
+    @FunctionalInterface
+    public interface IdempotentCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration waitTimeout;
+
+    private final Cache<String, CompletableFuture<Response>> results;
+
+    public IdempotencyService(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.waitTimeout = applicationProperties.getIdempotency().getWaitTimeout();
+        this.results = Caffeine.newBuilder()
+            .maximumSize(applicationProperties.getIdempotency().getMaxEntries())
+            .expireAfterWrite(applicationProperties.getIdempotency().getTtl())
+            .build();
+    }
+
+    /**
+     * @return {@code true} if the key can be used; {@code null} is valid and means that the call is not idempotent.
+     */
+    public static boolean isValidKey(String key) {
+        return key == null || (!key.isBlank() && key.length() <= MAX_KEY_LENGTH);
+    }
+
+    /**
+     * @return the hex SHA-256 hash of a request payload.
+     */
+    public static String hash(String payload) {
+        return HexFormat.of().formatHex(sha256().digest(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Run the call once for the key.
+     *
+     * @param operation the name of the operation, scoping the key.
+     * @param key the idempotency key sent by the client, or {@code null} to always run the call.
+     * @param requestHash the hash of the request payload, bound to the key. It is asked once the first call returned, and
+     * before a retry waits for the first call, so that it may hash a body streamed to the call.
+     * @param call the write.
+     * @return the result of the call, or of the first call with the same key.
+     * @throws E if the call, or the first call with the same key still running, failed.
+     * @throws KeyInUseException if the first call with the same key is still running after the wait timeout.
+     * @throws KeyReusedException if the first call with the same key had another payload.
+     */
+    public <T, E extends Exception> T execute(
+        String operation,
+        String key,
+        IdempotentCall<String, ? extends E> requestHash,
+        IdempotentCall<T, E> call
+    ) throws E {
+        if (key == null) {
+            return call.call();
+        }
+        String scopedKey = SecurityUtils.getCurrentUserLogin().orElse("") + '\n' + operation + '\n' + key;
+        CompletableFuture<Response> first = new CompletableFuture<>();
+        CompletableFuture<Response> existing = results.asMap().putIfAbsent(scopedKey, first);
+        if (existing != null) {
+            String hash = requestHash.call();
+            Response response = await(operation, existing);
+            if (!response.requestHash().equals(hash)) {
+                count(operation, "mismatched");
+                throw new KeyReusedException(operation);
+            }
+            LOG.debug("Replaying {} for Idempotency-Key {}", operation, key);
+            count(operation, "replayed");
+            @SuppressWarnings("unchecked")
+            T replayed = (T) response.result();
+            return replayed;
+        }
+        count(operation, "executed");
+        T result;
+        Response response;
+        try {
+            result = call.call();
+            response = new Response(requestHash.call(), result);
+        } catch (Throwable e) {
+            release(scopedKey, first, e);
+            throw e;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            first.complete(response);
+            return result;
+        }
+        // Retries only get the result once it is committed
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        first.complete(response);
+                    } else {
+                        release(scopedKey, first, new IllegalStateException(operation + " was rolled back"));
+                    }
+                }
+            }
+        );
+        return result;
+    }
+
+    private void release(String scopedKey, CompletableFuture<Response> first, Throwable failure) {
+        results.asMap().remove(scopedKey, first);
+        first.completeExceptionally(failure);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> Response await(String operation, CompletableFuture<Response> first) throws E {
+        try {
+            return first.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            count(operation, "in-use");
+            throw new KeyInUseException(operation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeyInUseException(operation);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            // Only the exceptions declared by the call can be thrown by it
+            throw (E) cause;
+        }
+    }
+
+    private void count(String operation, String result) {
+        Counter.builder("idempotency.requests")
+            .description("Writes sent with an Idempotency-Key, executed or replayed")
+            .tag("operation", operation)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * Result of the first call with a key, and the hash of its payload.
+     */
+    private record Response(String requestHash, Object result) {}
+
+    /**
+     * Request body hashed as it is read.
+     */
+    public static class HashingInputStream extends DigestInputStream {
+
+        public HashingInputStream(InputStream body) {
+            super(body, sha256());
+        }
+
+        /**
+         * Read what is left of the body and hash all of it; the stream cannot be hashed again.
+         *
+         * @return the hex SHA-256 hash of the body.
+         * @throws IOException if the body cannot be read.
+         */
+        public String hash() throws IOException {
+            transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(getMessageDigest().digest());
+        }
+    }
+
+    /**
+     * Thrown to a retry when the first call with the same key is still running after the wait timeout; it may be sent
+     * again later.
+     */
+    public static class KeyInUseException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public KeyInUseException(String operation) {
+            super("The first " + operation + " with this Idempotency-Key is still running");
+        }
+    }
+
+    /**
+     * Thrown to a retry whose payload is not the one of the first call with the same key.
+     */
+    public static class KeyReusedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public KeyReusedException(String operation) {
+            super("The Idempotency-Key was used by another " + operation + " request");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.groupeisi.m2gl.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import org.springdoc.core.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.*;
+
+/**
+ * Criteria class for the {@link com.groupeisi.m2gl.domain.Book} entity. This class is used
+ * in {@link com.groupeisi.m2gl.web.rest.BookResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /books?prix.greaterThan=5&datePub.greaterThanOrEqual=2020-01-01&datePub.lessThanOrEqual=2020-12-31&author.equals=Hugo}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ * <p>
+ * Only the indexed columns can be filtered on, and the author only by equality: a substring search on the title or the
+ * author goes through {@code GET /books/_search}.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class BookCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private DoubleFilter prix;
+
+    private Filter<String> author;
+
+    private LocalDateFilter datePub;
+
+    public BookCriteria() {}
+
+    public BookCriteria(BookCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.prix = other.optionalPrix().map(DoubleFilter::copy).orElse(null);
+        this.author = other.optionalAuthor().map(Filter::copy).orElse(null);
+        this.datePub = other.optionalDatePub().map(LocalDateFilter::copy).orElse(null);
+    }
+
+    @Override
+    public BookCriteria copy() {
+        return new BookCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public DoubleFilter getPrix() {
+        return prix;
+    }
+
+    public Optional<DoubleFilter> optionalPrix() {
+        return Optional.ofNullable(prix);
+    }
+
+    public DoubleFilter prix() {
+        if (prix == null) {
+            setPrix(new DoubleFilter());
+        }
+        return prix;
+    }
+
+    public void setPrix(DoubleFilter prix) {
+        this.prix = prix;
+    }
+
+    public Filter<String> getAuthor() {
+        return author;
+    }
+
+    public Optional<Filter<String>> optionalAuthor() {
+        return Optional.ofNullable(author);
+    }
+
+    public Filter<String> author() {
+        if (author == null) {
+            setAuthor(new Filter<>());
+        }
+        return author;
+    }
+
+    public void setAuthor(Filter<String> author) {
+        this.author = author;
+    }
+
+    public LocalDateFilter getDatePub() {
+        return datePub;
+    }
+
+    public Optional<LocalDateFilter> optionalDatePub() {
+        return Optional.ofNullable(datePub);
+    }
+
+    public LocalDateFilter datePub() {
+        if (datePub == null) {
+            setDatePub(new LocalDateFilter());
+        }
+        return datePub;
+    }
+
+    public void setDatePub(LocalDateFilter datePub) {
+        this.datePub = datePub;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final BookCriteria that = (BookCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(prix, that.prix) &&
+            Objects.equals(author, that.author) &&
+            Objects.equals(datePub, that.datePub)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, prix, author, datePub);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalPrix().map(f -> "prix=" + f + ", ").orElse("") +
+            optionalAuthor().map(f -> "author=" + f + ", ").orElse("") +
+            optionalDatePub().map(f -> "datePub=" + f + ", ").orElse("") +
+        "}";
+    }
+}
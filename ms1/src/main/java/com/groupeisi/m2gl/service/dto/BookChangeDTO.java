@@ -0,0 +1,81 @@
+package com.groupeisi.m2gl.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.domain.BookChangedEvent;
+import java.io.Serializable;
+
+/**
+ * A DTO for a committed write of a book, as sent by the change feed.
+ */
+public class BookChangeDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BookChangedEvent.Type type;
+
+    private final Long id;
+
+    private final Book book;
+
+    private final String author;
+
+    public BookChangeDTO(BookChangedEvent.Type type, Long id, Book book, String author) {
+        this.type = type;
+        this.id = id;
+        this.book = book;
+        this.author = author;
+    }
+
+    /**
+     * The change of an event, with a copy of the book as written: the entity may still change once sent.
+     */
+    public static BookChangeDTO of(BookChangedEvent event) {
+        Book book = event.getBook();
+        return new BookChangeDTO(
+            event.getType(),
+            book.getId(),
+            event.getType() == BookChangedEvent.Type.DELETED ? null : snapshot(book),
+            book.getAuthor()
+        );
+    }
+
+    private static Book snapshot(Book book) {
+        Book copy = new Book()
+            .id(book.getId())
+            .title(book.getTitle())
+            .prix(book.getPrix())
+            .author(book.getAuthor())
+            .date_pub(book.getDate_pub());
+        copy.setVersion(book.getVersion());
+        return copy;
+    }
+
+    public BookChangedEvent.Type getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * The book as written, {@code null} for a delete.
+     */
+    public Book getBook() {
+        return book;
+    }
+
+    /**
+     * The author of the book as written, or as it was when deleted; only used to filter the changes.
+     */
+    @JsonIgnore
+    public String getAuthor() {
+        return author;
+    }
+
+    @Override
+    public String toString() {
+        return "BookChangeDTO{" + "type=" + type + ", id=" + id + "}";
+    }
+}
@@ -0,0 +1,132 @@
+package com.groupeisi.m2gl.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO reporting the outcome of a bulk book import.
+ */
+public class BookImportReportDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long accepted;
+
+    private long rejected;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    private final List<Rejection> rejections = new ArrayList<>();
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * The first rejected rows, with the reason of their rejection.
+     */
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    @Override
+    public String toString() {
+        return "BookImportReportDTO{" + "accepted=" + accepted + ", rejected=" + rejected + ", chunks=" + chunks.size() + "}";
+    }
+
+    /**
+     * A chunk of rows written in its own transaction.
+     */
+    public static class Chunk implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private int index;
+
+        private int size;
+
+        private boolean committed;
+
+        private long durationMs;
+
+        private String error;
+
+        public Chunk() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public Chunk(int index, int size, boolean committed, long durationMs, String error) {
+            this.index = index;
+            this.size = size;
+            this.committed = committed;
+            this.durationMs = durationMs;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public boolean isCommitted() {
+            return committed;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * A row of the input that could not be imported.
+     */
+    public static class Rejection implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long line;
+
+        private String reason;
+
+        public Rejection() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public Rejection(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.groupeisi.m2gl.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.groupeisi.m2gl.domain.Book;
+import java.io.Serializable;
+
+/**
+ * A DTO for one book operation of a batch.
+ */
+public class BookOperationDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Op {
+        CREATE,
+        GET,
+        UPDATE,
+        PATCH,
+        DELETE,
+    }
+
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_CASE_INSENSITIVE_VALUES)
+    private Op op;
+
+    private Long id;
+
+    private Book book;
+
+    public BookOperationDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BookOperationDTO(Op op, Long id, Book book) {
+        this.op = op;
+        this.id = id;
+        this.book = book;
+    }
+
+    public Op getOp() {
+        return op;
+    }
+
+    public void setOp(Op op) {
+        this.op = op;
+    }
+
+    /**
+     * The id of the book to get, update, patch or delete.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * The book to create, or the fields to update or patch.
+     */
+    public Book getBook() {
+        return book;
+    }
+
+    public void setBook(Book book) {
+        this.book = book;
+    }
+
+    @Override
+    public String toString() {
+        return "BookOperationDTO{" + "op=" + op + ", id=" + id + "}";
+    }
+}
@@ -0,0 +1,83 @@
+package com.groupeisi.m2gl.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.groupeisi.m2gl.domain.Book;
+import java.io.Serializable;
+
+/**
+ * A DTO for the outcome of one book operation of a batch, with the HTTP status the same call to {@code /api/books}
+ * would have returned.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookOperationResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int status;
+
+    private Long id;
+
+    private Book book;
+
+    private String error;
+
+    public BookOperationResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BookOperationResultDTO(int status, Long id, Book book, String error) {
+        this.status = status;
+        this.id = id;
+        this.book = book;
+        this.error = error;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * The book read or written, absent for a delete or a failure.
+     */
+    public Book getBook() {
+        return book;
+    }
+
+    public void setBook(Book book) {
+        this.book = book;
+    }
+
+    /**
+     * The error key of a failure, as in the {@code error.<key>} message of {@code /api/books}.
+     */
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @JsonIgnore
+    public boolean isSuccessful() {
+        return status < 300;
+    }
+
+    @Override
+    public String toString() {
+        return "BookOperationResultDTO{" + "status=" + status + ", id=" + id + ", error=" + error + "}";
+    }
+}
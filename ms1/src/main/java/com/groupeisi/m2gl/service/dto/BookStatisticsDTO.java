@@ -0,0 +1,103 @@
+package com.groupeisi.m2gl.service.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * A DTO with the aggregated statistics of the book catalogue.
+ * <p>
+ * Books without author, price or publication date are counted in {@code count} but left out of the corresponding
+ * aggregates.
+ */
+public class BookStatisticsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long count;
+
+    private final Double minPrix;
+
+    private final Double maxPrix;
+
+    private final Double averagePrix;
+
+    private final Map<String, AuthorStatistics> authors;
+
+    private final Map<Integer, Long> countByYear;
+
+    public BookStatisticsDTO(
+        long count,
+        Double minPrix,
+        Double maxPrix,
+        Double averagePrix,
+        Map<String, AuthorStatistics> authors,
+        Map<Integer, Long> countByYear
+    ) {
+        this.count = count;
+        this.minPrix = minPrix;
+        this.maxPrix = maxPrix;
+        this.averagePrix = averagePrix;
+        this.authors = authors;
+        this.countByYear = countByYear;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Double getMinPrix() {
+        return minPrix;
+    }
+
+    public Double getMaxPrix() {
+        return maxPrix;
+    }
+
+    public Double getAveragePrix() {
+        return averagePrix;
+    }
+
+    /**
+     * Aggregates per author, by author name.
+     */
+    public Map<String, AuthorStatistics> getAuthors() {
+        return authors;
+    }
+
+    /**
+     * Histogram of the books by year of publication.
+     */
+    public Map<Integer, Long> getCountByYear() {
+        return countByYear;
+    }
+
+    @Override
+    public String toString() {
+        return "BookStatisticsDTO{" + "count=" + count + ", authors=" + authors.size() + ", years=" + countByYear.size() + "}";
+    }
+
+    /**
+     * Aggregates of the books of one author.
+     */
+    public static class AuthorStatistics implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long count;
+
+        private final Double averagePrix;
+
+        public AuthorStatistics(long count, Double averagePrix) {
+            this.count = count;
+            this.averagePrix = averagePrix;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public Double getAveragePrix() {
+            return averagePrix;
+        }
+    }
+}
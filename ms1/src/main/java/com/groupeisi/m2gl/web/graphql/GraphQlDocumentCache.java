@@ -0,0 +1,108 @@
+package com.groupeisi.m2gl.web.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.language.Document;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache LRU des documents GraphQL analysés et validés, et requêtes persistées automatiques (APQ).
+ * <p>
+ * Un document est gardé par texte de requête, au plus {@code application.graphql.document-cache-size}. Une requête
+ * portant l'extension {@code persistedQuery} est gardée par l'empreinte sha256 de son texte, au plus
+ * {@code application.graphql.persisted-query-cache-size} : le client peut ensuite n'envoyer que l'empreinte, et reçoit
+ * l'erreur {@code PersistedQueryNotFound} si elle est inconnue, auquel cas il renvoie le texte avec l'empreinte. Les
+ * documents invalides ne sont pas gardés. Les deux caches sont exposés dans Micrometer en {@code cache.gets}, avec
+ * {@code cache=graphql.documents} et {@code cache=graphql.persisted-queries}.
+ */
+@Component
+public class GraphQlDocumentCache implements PreparsedDocumentProvider {
+
+    private final Cache<String, PreparsedDocumentEntry> documents;
+
+    private final Cache<Object, PreparsedDocumentEntry> persistedQueries;
+
+    private final PersistedQuerySupport persistedQuerySupport;
+
+    public GraphQlDocumentCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.documents = Caffeine.newBuilder().maximumSize(applicationProperties.getGraphql().getDocumentCacheSize()).recordStats().build();
+        this.persistedQueries = Caffeine.newBuilder()
+            .maximumSize(applicationProperties.getGraphql().getPersistedQueryCacheSize())
+            .recordStats()
+            .build();
+        this.persistedQuerySupport = new ApolloPersistedQuerySupport(this::getPersistedQuery);
+        CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphql.documents");
+        CaffeineCacheMetrics.monitor(meterRegistry, persistedQueries, "graphql.persisted-queries");
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+        ExecutionInput executionInput,
+        Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction
+    ) {
+        if (isPersistedQuery(executionInput)) {
+            return persistedQuerySupport.getDocumentAsync(executionInput, parseAndValidateFunction);
+        }
+        PreparsedDocumentEntry entry = getOrParse(documents, executionInput.getQuery(), () ->
+            parseAndValidateFunction.apply(executionInput)
+        );
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    /**
+     * Document d'une requête persistée déjà reçue, lu sans compter dans les statistiques du cache.
+     */
+    Optional<Document> getPersistedDocument(String persistedQueryId) {
+        PreparsedDocumentEntry entry = persistedQueries.policy().getIfPresentQuietly(persistedQueryId);
+        return Optional.ofNullable(entry).map(PreparsedDocumentEntry::getDocument);
+    }
+
+    /**
+     * Document d'une requête persistée ; sans texte de requête, {@code onCacheMiss} lève {@code PersistedQueryNotFound}.
+     */
+    private CompletableFuture<PreparsedDocumentEntry> getPersistedQuery(
+        Object persistedQueryId,
+        ExecutionInput executionInput,
+        PersistedQueryCacheMiss onCacheMiss
+    ) {
+        String query = executionInput.getQuery();
+        String queryText = PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query) ? "" : query;
+        PreparsedDocumentEntry entry = getOrParse(persistedQueries, persistedQueryId, () -> onCacheMiss.apply(queryText));
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    private static boolean isPersistedQuery(ExecutionInput executionInput) {
+        Map<String, Object> extensions = executionInput.getExtensions();
+        return extensions != null && extensions.get("persistedQuery") instanceof Map;
+    }
+
+    private static <K> PreparsedDocumentEntry getOrParse(
+        Cache<K, PreparsedDocumentEntry> cache,
+        K key,
+        Supplier<PreparsedDocumentEntry> parseAndValidate
+    ) {
+        PreparsedDocumentEntry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            entry = parseAndValidate.get();
+            // Les erreurs de syntaxe ou de validation sont renvoyées sans être gardées
+            if (!entry.hasErrors()) {
+                cache.put(key, entry);
+            }
+        }
+        return entry;
+    }
+}
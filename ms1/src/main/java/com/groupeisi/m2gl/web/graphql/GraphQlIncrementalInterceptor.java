@@ -0,0 +1,23 @@
+package com.groupeisi.m2gl.web.graphql;
+
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Active {@code @defer} et {@code @stream} pour les requêtes acceptant une réponse {@code multipart/mixed}, servies
+ * par {@link GraphQlMultipartHttpHandler} ; pour les autres, les directives sont ignorées.
+ */
+@Component
+public class GraphQlIncrementalInterceptor implements WebGraphQlInterceptor {
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        if (GraphQlMultipartHttpHandler.acceptsMultipart(request.getHeaders())) {
+            request.configureExecutionInput((input, builder) -> builder.graphQLContext(GraphQlStreams::enable).build());
+        }
+        return chain.next(request);
+    }
+}
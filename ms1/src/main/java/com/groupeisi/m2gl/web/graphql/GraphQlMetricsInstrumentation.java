@@ -0,0 +1,193 @@
+package com.groupeisi.m2gl.web.graphql;
+
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import graphql.ExecutionResult;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.validation.ValidationError;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Instrumentation graphql-java exportant dans Micrometer la durée des opérations, de leurs phases et de leurs champs,
+ * étiquetées par nom d'opération.
+ * <p>
+ * <ul>
+ *     <li>{@code graphql.operation} : durée de chaque opération, par {@code operation}, {@code type} et
+ *     {@code outcome} ;</li>
+ *     <li>{@code graphql.operation.phase} : durée de l'analyse ({@code parse}), de la validation ({@code validate}) et
+ *     de l'exécution ({@code execute}), l'analyse et la validation n'étant mesurées que si le document n'est pas déjà
+ *     en cache ;</li>
+ *     <li>{@code graphql.field} : durée et nombre d'appels des data fetchers, par {@code operation}, {@code field}
+ *     ({@code Type.champ}) et {@code outcome}. Les lectures de propriétés ne sont pas mesurées, et seule une part
+ *     {@code application.graphql.metrics-field-sample-rate} des opérations l'est.</li>
+ * </ul>
+ * Les noms d'opération étant choisis par les clients, seuls les {@code application.graphql.metrics-max-operation-names}
+ * premiers sont gardés, les suivants étant étiquetés {@code other} ; les opérations sans nom sont étiquetées
+ * {@code anonymous}.
+ */
+@Component
+public class GraphQlMetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    static final String ANONYMOUS = "anonymous";
+
+    static final String OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+
+    private final double fieldSampleRate;
+
+    private final int maxOperationNames;
+
+    private final Set<String> operationNames = ConcurrentHashMap.newKeySet();
+
+    public GraphQlMetricsInstrumentation(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.fieldSampleRate = applicationProperties.getGraphql().getMetricsFieldSampleRate();
+        this.maxOperationNames = applicationProperties.getGraphql().getMetricsMaxOperationNames();
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        boolean sampled = fieldSampleRate >= 1 || (fieldSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < fieldSampleRate);
+        return new MetricsState(sampled);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(
+        InstrumentationExecutionParameters parameters,
+        InstrumentationState state
+    ) {
+        MetricsState metrics = (MetricsState) state;
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+            boolean success = throwable == null && (result == null || result.getErrors().isEmpty());
+            Timer.builder("graphql.operation")
+                .description("GraphQL operations")
+                .tag("operation", metrics.operation)
+                .tag("type", metrics.type)
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Le nom de l'opération n'est connu qu'après l'analyse du document
+            recordPhase(metrics, "parse", metrics.parseNanos);
+            recordPhase(metrics, "validate", metrics.validateNanos);
+            recordPhase(metrics, "execute", metrics.executeNanos);
+        });
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters, InstrumentationState state) {
+        MetricsState metrics = (MetricsState) state;
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((document, throwable) -> metrics.parseNanos = System.nanoTime() - start);
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(
+        InstrumentationValidationParameters parameters,
+        InstrumentationState state
+    ) {
+        MetricsState metrics = (MetricsState) state;
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((errors, throwable) -> metrics.validateNanos = System.nanoTime() - start);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+        InstrumentationExecuteOperationParameters parameters,
+        InstrumentationState state
+    ) {
+        MetricsState metrics = (MetricsState) state;
+        OperationDefinition operation = parameters.getExecutionContext().getOperationDefinition();
+        metrics.operation = operationTag(operation.getName());
+        metrics.type = operation.getOperation().name().toLowerCase(Locale.ROOT);
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> metrics.executeNanos = System.nanoTime() - start);
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
+        MetricsState metrics = (MetricsState) state;
+        if (!metrics.sampled || parameters.isTrivialDataFetcher()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        ExecutionStepInfo stepInfo = parameters.getExecutionStepInfo();
+        String field = stepInfo.getObjectType().getName() + "." + stepInfo.getFieldDefinition().getName();
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((value, throwable) ->
+            Timer.builder("graphql.field")
+                .description("GraphQL data fetchers")
+                .tag("operation", metrics.operation)
+                .tag("field", field)
+                .tag("outcome", throwable == null ? "success" : "error")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS)
+        );
+    }
+
+    private void recordPhase(MetricsState metrics, String phase, long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        Timer.builder("graphql.operation.phase")
+            .description("Phases of the GraphQL operations")
+            .tag("operation", metrics.operation)
+            .tag("phase", phase)
+            .register(meterRegistry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String operationTag(String name) {
+        if (name == null) {
+            return ANONYMOUS;
+        }
+        if (operationNames.contains(name)) {
+            return name;
+        }
+        if (operationNames.size() >= maxOperationNames) {
+            return OTHER;
+        }
+        operationNames.add(name);
+        return name;
+    }
+
+    /**
+     * Mesures d'une opération en cours ; une phase non exécutée garde une durée négative.
+     */
+    private static final class MetricsState implements InstrumentationState {
+
+        private final boolean sampled;
+
+        private volatile String operation = ANONYMOUS;
+
+        private volatile String type = "unknown";
+
+        private volatile long parseNanos = -1;
+
+        private volatile long validateNanos = -1;
+
+        private volatile long executeNanos = -1;
+
+        private MetricsState(boolean sampled) {
+            this.sampled = sampled;
+        }
+    }
+}
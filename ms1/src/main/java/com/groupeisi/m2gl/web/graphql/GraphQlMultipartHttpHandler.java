@@ -0,0 +1,128 @@
+package com.groupeisi.m2gl.web.graphql;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.ExecutionResult;
+import graphql.GraphQLContext;
+import graphql.incremental.DelayedIncrementalPartialResult;
+import graphql.incremental.IncrementalExecutionResult;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.server.webmvc.AbstractGraphQlHttpHandler;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Transport HTTP des opérations livrées en plusieurs parties, pour les clients acceptant {@code multipart/mixed}.
+ * <p>
+ * La réponse initiale est envoyée dès qu'elle est prête, puis les fragments {@code @defer} exécutés par graphql-java,
+ * puis la suite des listes {@code @stream} ({@link GraphQlStreams}), lue au fil de l'envoi. Chaque partie est un
+ * document JSON suivant le format de livraison incrémentale d'Apollo ({@code deferSpec=20220824}), la dernière ne
+ * portant que {@code "hasNext": false}. Une opération sans partie différée est renvoyée en un seul document JSON.
+ */
+public class GraphQlMultipartHttpHandler extends AbstractGraphQlHttpHandler {
+
+    static final MediaType MULTIPART_MIXED = MediaType.parseMediaType("multipart/mixed;boundary=\"-\";deferSpec=20220824");
+
+    private static final byte[] PART_START = "\r\n---\r\nContent-Type: application/json; charset=utf-8\r\n\r\n".getBytes(UTF_8);
+
+    private static final byte[] END = "\r\n-----\r\n".getBytes(UTF_8);
+
+    private final ObjectMapper objectMapper;
+
+    private final int streamBatchSize;
+
+    public GraphQlMultipartHttpHandler(WebGraphQlHandler graphQlHandler, ObjectMapper objectMapper, int streamBatchSize) {
+        super(graphQlHandler, new MappingJackson2HttpMessageConverter(objectMapper));
+        this.objectMapper = objectMapper;
+        this.streamBatchSize = streamBatchSize;
+    }
+
+    /**
+     * Vrai si le client accepte explicitement une réponse {@code multipart/mixed}, un joker ne suffisant pas.
+     */
+    public static boolean acceptsMultipart(HttpHeaders headers) {
+        try {
+            return headers.getAccept().stream().anyMatch(type -> "multipart".equals(type.getType()) && "mixed".equals(type.getSubtype()));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected ServerResponse prepareResponse(ServerRequest request, Mono<WebGraphQlResponse> responseMono) {
+        CompletableFuture<ServerResponse> future = responseMono
+            .map(response -> {
+                ExecutionResult result = response.getExecutionResult();
+                GraphQLContext context = response.getExecutionInput().getGraphQLContext();
+                // Sans fragment différé, toutes les listes @stream ont été enregistrées pendant l'exécution
+                boolean streamed = GraphQlStreams.of(context).filter(streams -> !streams.isEmpty()).isPresent();
+                if (!(result instanceof IncrementalExecutionResult) && !streamed) {
+                    return ServerResponse.ok()
+                        .headers(headers -> headers.putAll(response.getResponseHeaders()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .build(getWriteFunction(response.toMap(), MediaType.APPLICATION_JSON));
+                }
+                return ServerResponse.ok()
+                    .headers(headers -> headers.putAll(response.getResponseHeaders()))
+                    .contentType(MULTIPART_MIXED)
+                    .build((servletRequest, servletResponse) -> {
+                        writeParts(servletResponse.getOutputStream(), result, context);
+                        return null;
+                    });
+            })
+            .toFuture();
+        return ServerResponse.async(future);
+    }
+
+    private void writeParts(OutputStream out, ExecutionResult result, GraphQLContext context) throws IOException {
+        writePart(out, withNext(result.toSpecification()));
+        if (result instanceof IncrementalExecutionResult incremental) {
+            for (DelayedIncrementalPartialResult part : Flux.from(incremental.getIncrementalItemPublisher()).toIterable()) {
+                writePart(out, withNext(part.toSpecification()));
+            }
+        }
+        // Les listes @stream des fragments différés ne sont enregistrées qu'à leur exécution, lors de l'envoi ci-dessus
+        GraphQlStreams.of(context).ifPresent(streams ->
+            streams.forEachPayload(streamBatchSize, payload -> {
+                try {
+                    writePart(out, Map.of("incremental", List.of(payload.toSpecification()), "hasNext", true));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+        );
+        writePart(out, Map.of("hasNext", false));
+        out.write(END);
+        out.flush();
+    }
+
+    /**
+     * Partie suivie d'autres : la dernière partie, {@code "hasNext": false}, est envoyée seule.
+     */
+    private static Map<String, Object> withNext(Map<String, Object> specification) {
+        Map<String, Object> part = new LinkedHashMap<>(specification);
+        part.put("hasNext", true);
+        return part;
+    }
+
+    private void writePart(OutputStream out, Map<String, Object> part) throws IOException {
+        out.write(PART_START);
+        out.write(objectMapper.writeValueAsBytes(part));
+        out.flush();
+    }
+}
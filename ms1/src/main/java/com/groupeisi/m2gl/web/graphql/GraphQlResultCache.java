@@ -0,0 +1,251 @@
+package com.groupeisi.m2gl.web.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import com.groupeisi.m2gl.service.BookChangeVersion;
+import graphql.ExecutionResult;
+import graphql.language.AstPrinter;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cache des résultats des requêtes GraphQL en lecture seule, activé par {@code application.graphql.result-cache-enabled}.
+ * <p>
+ * Seules les requêtes (query) ne lisant que {@code books}, {@code book}, {@code booksByTitle} et {@code booksByAuthor}
+ * sont gardées, par document normalisé (sans espaces ni commentaires), nom d'opération, variables et rôles de
+ * l'appelant ; une requête persistée envoyée par son empreinte partage les résultats de son texte. Un résultat est
+ * gardé sous la version des livres prise avant son exécution ({@link BookChangeVersion}) : toute écriture validée le
+ * rend introuvable, jusqu'à son éviction. Les écritures des autres instances ne sont vues qu'à l'expiration des
+ * résultats, après {@code application.graphql.result-cache-ttl}. Les résultats en erreur, et les réponses en plusieurs
+ * parties ({@code multipart/mixed}), ne sont pas gardés.
+ * <p>
+ * La mémoire est bornée par la taille estimée des résultats, {@code application.graphql.result-cache-max-weight}. Le
+ * cache est exposé dans Micrometer en {@code cache.*}, avec {@code cache=graphql.results}, et sa taille estimée en
+ * octets en {@code cache.weight}.
+ */
+@Component
+public class GraphQlResultCache implements WebGraphQlInterceptor {
+
+    static final String CACHE_NAME = "graphql.results";
+
+    /**
+     * Champs de Query en lecture seule dont les résultats peuvent être gardés.
+     */
+    private static final Set<String> CACHEABLE_FIELDS = Set.of("books", "book", "booksByTitle", "booksByAuthor", "__typename");
+
+    private final ApplicationProperties.Graphql properties;
+
+    private final BookChangeVersion bookChangeVersion;
+
+    private final GraphQlDocumentCache graphQlDocumentCache;
+
+    /**
+     * Document normalisé de chaque texte de requête et nom d'opération, vide si la requête ne peut être gardée.
+     */
+    private final Cache<QueryKey, Optional<String>> normalizedQueries;
+
+    private final Cache<ResultKey, Object> results;
+
+    public GraphQlResultCache(
+        ApplicationProperties applicationProperties,
+        BookChangeVersion bookChangeVersion,
+        GraphQlDocumentCache graphQlDocumentCache,
+        MeterRegistry meterRegistry
+    ) {
+        this.properties = applicationProperties.getGraphql();
+        this.bookChangeVersion = bookChangeVersion;
+        this.graphQlDocumentCache = graphQlDocumentCache;
+        this.normalizedQueries = Caffeine.newBuilder().maximumSize(properties.getDocumentCacheSize()).build();
+        this.results = Caffeine.newBuilder()
+            .maximumWeight(properties.getResultCacheMaxWeight().toBytes())
+            .weigher(GraphQlResultCache::weigh)
+            .expireAfterWrite(properties.getResultCacheTtl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+        Gauge.builder("cache.weight", results, cache -> cache.policy().eviction().orElseThrow().weightedSize().orElse(0))
+            .description("Estimated size of the cached entries")
+            .baseUnit("bytes")
+            .tag("cache", CACHE_NAME)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        // Une réponse en plusieurs parties n'est pas gardée
+        if (!properties.isResultCacheEnabled() || GraphQlMultipartHttpHandler.acceptsMultipart(request.getHeaders())) {
+            return chain.next(request);
+        }
+        String operationName = StringUtils.hasText(request.getOperationName()) ? request.getOperationName() : null;
+        String document = normalizedDocument(request, operationName).orElse(null);
+        if (document == null) {
+            return chain.next(request);
+        }
+        // Une écriture validée pendant l'exécution change la version : le résultat, peut-être périmé, ne sera pas relu
+        ResultKey key = new ResultKey(
+            bookChangeVersion.get(),
+            document,
+            operationName,
+            request.getVariables(),
+            currentAuthorities()
+        );
+        Object data = results.getIfPresent(key);
+        if (data != null) {
+            ExecutionResult result = ExecutionResult.newExecutionResult().data(data).build();
+            return Mono.just(new WebGraphQlResponse(new DefaultExecutionGraphQlResponse(request.toExecutionInput(), result)));
+        }
+        return chain
+            .next(request)
+            .doOnNext(response -> {
+                if (response.isValid() && response.getErrors().isEmpty()) {
+                    results.put(key, response.getData());
+                }
+            });
+    }
+
+    private Optional<String> normalizedDocument(WebGraphQlRequest request, String operationName) {
+        if (StringUtils.hasText(request.getDocument())) {
+            return normalizedQueries.get(new QueryKey(request.getDocument(), null, operationName), key -> {
+                try {
+                    return normalize(Parser.parse(key.query()), operationName);
+                } catch (InvalidSyntaxException e) {
+                    return Optional.empty();
+                }
+            });
+        }
+        // Requête persistée envoyée par son empreinte, gardée si son texte a déjà été reçu
+        if (
+            request.getExtensions().get("persistedQuery") instanceof Map<?, ?> persistedQuery &&
+            persistedQuery.get("sha256Hash") instanceof String hash
+        ) {
+            return graphQlDocumentCache
+                .getPersistedDocument(hash)
+                .flatMap(persistedDocument ->
+                    normalizedQueries.get(new QueryKey(null, hash, operationName), key -> normalize(persistedDocument, operationName))
+                );
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> normalize(Document document, String operationName) {
+        List<OperationDefinition> operations = document.getDefinitionsOfType(OperationDefinition.class);
+        OperationDefinition operation = operationName == null
+            ? Optional.of(operations).filter(definitions -> definitions.size() == 1).map(definitions -> definitions.get(0)).orElse(null)
+            : operations.stream().filter(definition -> operationName.equals(definition.getName())).findFirst().orElse(null);
+        if (operation == null || operation.getOperation() != OperationDefinition.Operation.QUERY) {
+            return Optional.empty();
+        }
+        Map<String, FragmentDefinition> fragments = document
+            .getDefinitionsOfType(FragmentDefinition.class)
+            .stream()
+            .collect(Collectors.toMap(FragmentDefinition::getName, Function.identity(), (first, second) -> first));
+        if (!readsOnlyCacheableFields(operation.getSelectionSet(), fragments, new HashSet<>())) {
+            return Optional.empty();
+        }
+        return Optional.of(AstPrinter.printAstCompact(document));
+    }
+
+    private static boolean readsOnlyCacheableFields(
+        SelectionSet selectionSet,
+        Map<String, FragmentDefinition> fragments,
+        Set<String> spread
+    ) {
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field) {
+                if (!CACHEABLE_FIELDS.contains(field.getName())) {
+                    return false;
+                }
+            } else if (selection instanceof InlineFragment fragment) {
+                if (!readsOnlyCacheableFields(fragment.getSelectionSet(), fragments, spread)) {
+                    return false;
+                }
+            } else if (selection instanceof FragmentSpread fragmentSpread) {
+                FragmentDefinition fragment = fragments.get(fragmentSpread.getName());
+                if (fragment == null) {
+                    return false;
+                }
+                if (spread.add(fragment.getName()) && !readsOnlyCacheableFields(fragment.getSelectionSet(), fragments, spread)) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> currentAuthorities() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return Set.of();
+        }
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * Taille estimée en octets d'un résultat et de sa clé.
+     */
+    private static int weigh(ResultKey key, Object data) {
+        long weight = 2L * key.document().length() + estimateSize(key.variables()) + estimateSize(data);
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static long estimateSize(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            long size = 48;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += 32 + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = 24;
+            for (Object element : collection) {
+                size += 8 + estimateSize(element);
+            }
+            return size;
+        }
+        if (value instanceof String string) {
+            return 40 + 2L * string.length();
+        }
+        return 16;
+    }
+
+    /**
+     * Texte d'une requête, ou empreinte d'une requête persistée envoyée sans son texte.
+     */
+    private record QueryKey(String query, String persistedQueryId, String operationName) {}
+
+    private record ResultKey(long version, String document, String operationName, Map<String, Object> variables, Set<String> authorities) {}
+}
@@ -0,0 +1,166 @@
+package com.groupeisi.m2gl.web.graphql;
+
+import graphql.ExperimentalApi;
+import graphql.GraphQLContext;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.ResultPath;
+import graphql.execution.directives.QueryAppliedDirective;
+import graphql.execution.directives.QueryAppliedDirectiveArgument;
+import graphql.incremental.StreamPayload;
+import graphql.schema.DataFetchingEnvironment;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Listes demandées avec {@code @stream} par une opération livrée en plusieurs parties (multipart/mixed).
+ * <p>
+ * graphql-java n'exécute que {@code @defer} : pour {@code @stream}, le data fetcher ne renvoie que les
+ * {@code initialCount} premiers éléments et enregistre ici la lecture de la suite. Celle-ci est faite après l'envoi de
+ * la réponse initiale, par {@link GraphQlMultipartHttpHandler}, et chaque élément lu est envoyé par lots sans attendre
+ * les suivants. Sans livraison incrémentale, la directive est ignorée et la liste renvoyée entière.
+ */
+public class GraphQlStreams {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GraphQlStreams.class);
+
+    private static final String CONTEXT_KEY = GraphQlStreams.class.getName();
+
+    private final Queue<StreamedList> lists = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Active {@code @defer} et {@code @stream} pour une opération.
+     */
+    static void enable(GraphQLContext.Builder context) {
+        context.put(ExperimentalApi.ENABLE_INCREMENTAL_SUPPORT, true).put(CONTEXT_KEY, new GraphQlStreams());
+    }
+
+    static Optional<GraphQlStreams> of(GraphQLContext context) {
+        return Optional.ofNullable(context.get(CONTEXT_KEY));
+    }
+
+    /**
+     * Directive {@code @stream} active sur le champ en cours, si l'opération est livrée en plusieurs parties.
+     */
+    public static Optional<StreamDirective> requested(DataFetchingEnvironment environment) {
+        GraphQlStreams streams = environment.getGraphQlContext().get(CONTEXT_KEY);
+        if (streams == null) {
+            return Optional.empty();
+        }
+        List<QueryAppliedDirective> directives = environment.getQueryDirectives().getImmediateAppliedDirective("stream");
+        if (directives.isEmpty() || Boolean.FALSE.equals(argument(directives.get(0), "if"))) {
+            return Optional.empty();
+        }
+        Integer initialCount = argument(directives.get(0), "initialCount");
+        return Optional.of(
+            new StreamDirective(
+                streams,
+                environment.getExecutionStepInfo().getPath(),
+                argument(directives.get(0), "label"),
+                initialCount == null ? 0 : Math.max(0, initialCount)
+            )
+        );
+    }
+
+    private static <T> T argument(QueryAppliedDirective directive, String name) {
+        QueryAppliedDirectiveArgument argument = directive.getArgument(name);
+        return argument == null ? null : argument.getValue();
+    }
+
+    boolean isEmpty() {
+        return lists.isEmpty();
+    }
+
+    /**
+     * Lit la suite de chaque liste, dans l'ordre de leur enregistrement, et l'envoie par lots d'au plus
+     * {@code batchSize} éléments. L'échec de la lecture d'une liste est envoyé comme une erreur à son chemin.
+     */
+    void forEachPayload(int batchSize, Consumer<StreamPayload> send) {
+        StreamedList list;
+        while ((list = lists.poll()) != null) {
+            Batch batch = new Batch(list, batchSize, send);
+            try {
+                list.items().accept(batch::add);
+                batch.flush();
+            } catch (UncheckedIOException e) {
+                // Le client est parti
+                throw e;
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to stream the list at {}: {}", list.path(), e.getMessage());
+                ResultPath path = list.path().segment(batch.index);
+                send.accept(
+                    StreamPayload.newStreamedItem()
+                        .path(path)
+                        .label(list.label())
+                        .errors(List.of(GraphqlErrorBuilder.newError().message("Lecture de la liste interrompue").path(path).build()))
+                        .build()
+                );
+            }
+        }
+    }
+
+    /**
+     * Directive {@code @stream} d'un champ liste.
+     */
+    public record StreamDirective(GraphQlStreams streams, ResultPath path, String label, int initialCount) {
+        /**
+         * Enregistre la lecture de la suite de la liste, faite après l'envoi de la réponse initiale.
+         *
+         * @param sent le nombre d'éléments renvoyés par le data fetcher, au plus {@code initialCount}.
+         * @param items la lecture de la suite, passant chaque élément, déjà sous sa forme GraphQL, au consommateur.
+         */
+        public void rest(int sent, Consumer<Consumer<Object>> items) {
+            streams.lists.add(new StreamedList(path, label, sent, items));
+        }
+    }
+
+    private record StreamedList(ResultPath path, String label, int sent, Consumer<Consumer<Object>> items) {}
+
+    /**
+     * Éléments en attente d'envoi d'une liste.
+     */
+    private static final class Batch {
+
+        private final StreamedList list;
+
+        private final int size;
+
+        private final Consumer<StreamPayload> send;
+
+        private final List<Object> items;
+
+        private int index;
+
+        private Batch(StreamedList list, int size, Consumer<StreamPayload> send) {
+            this.list = list;
+            this.size = size;
+            this.send = send;
+            this.items = new ArrayList<>(size);
+            this.index = list.sent();
+        }
+
+        private void add(Object item) {
+            items.add(item);
+            if (items.size() >= size) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (items.isEmpty()) {
+                return;
+            }
+            send.accept(
+                StreamPayload.newStreamedItem().items(List.copyOf(items)).path(list.path().segment(index)).label(list.label()).build()
+            );
+            index += items.size();
+            items.clear();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.groupeisi.m2gl.web.graphql.dto;
+
+import java.io.Serializable;
+
+/**
+ * DTO pour les filtres de l'abonnement GraphQL bookChanged, appliqués par le serveur.
+ */
+public class BookChangeFilter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String author;
+    private String idMin;
+    private String idMax;
+
+    public BookChangeFilter() {
+        // Constructeur par défaut
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getIdMin() {
+        return idMin;
+    }
+
+    public void setIdMin(String idMin) {
+        this.idMin = idMin;
+    }
+
+    public String getIdMax() {
+        return idMax;
+    }
+
+    public void setIdMax(String idMax) {
+        this.idMax = idMax;
+    }
+}
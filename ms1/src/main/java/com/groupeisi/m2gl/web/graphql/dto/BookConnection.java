@@ -0,0 +1,28 @@
+package com.groupeisi.m2gl.web.graphql.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * DTO pour une page de livres de la requête GraphQL {@code booksConnection} (spécification Relay).
+ */
+public class BookConnection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<BookEdge> edges;
+    private final PageInfo pageInfo;
+
+    public BookConnection(List<BookEdge> edges, PageInfo pageInfo) {
+        this.edges = edges;
+        this.pageInfo = pageInfo;
+    }
+
+    public List<BookEdge> getEdges() {
+        return edges;
+    }
+
+    public PageInfo getPageInfo() {
+        return pageInfo;
+    }
+}
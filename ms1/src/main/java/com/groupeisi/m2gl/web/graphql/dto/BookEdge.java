@@ -0,0 +1,28 @@
+package com.groupeisi.m2gl.web.graphql.dto;
+
+import com.groupeisi.m2gl.domain.Book;
+import java.io.Serializable;
+
+/**
+ * DTO pour un livre d'une page {@link BookConnection}, avec son curseur.
+ */
+public class BookEdge implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String cursor;
+    private final Book node;
+
+    public BookEdge(String cursor, Book node) {
+        this.cursor = cursor;
+        this.node = node;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public Book getNode() {
+        return node;
+    }
+}
@@ -0,0 +1,62 @@
+package com.groupeisi.m2gl.web.graphql.dto;
+
+import java.io.Serializable;
+
+/**
+ * DTO pour les filtres de la requête GraphQL {@code booksConnection}, tous optionnels et cumulatifs.
+ */
+public class BookFilter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String author;
+    private Double prixMin;
+    private Double prixMax;
+    private String datePubFrom;
+    private String datePubTo;
+
+    public BookFilter() {
+        // Constructeur par défaut
+    }
+
+    // Getters Setters
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public Double getPrixMin() {
+        return prixMin;
+    }
+
+    public void setPrixMin(Double prixMin) {
+        this.prixMin = prixMin;
+    }
+
+    public Double getPrixMax() {
+        return prixMax;
+    }
+
+    public void setPrixMax(Double prixMax) {
+        this.prixMax = prixMax;
+    }
+
+    public String getDatePubFrom() {
+        return datePubFrom;
+    }
+
+    public void setDatePubFrom(String datePubFrom) {
+        this.datePubFrom = datePubFrom;
+    }
+
+    public String getDatePubTo() {
+        return datePubTo;
+    }
+
+    public void setDatePubTo(String datePubTo) {
+        this.datePubTo = datePubTo;
+    }
+}
@@ -0,0 +1,34 @@
+package com.groupeisi.m2gl.web.graphql.dto;
+
+import com.groupeisi.m2gl.domain.Book;
+import java.io.Serializable;
+
+/**
+ * DTO pour le résultat d'une entrée d'une mutation par lot : le livre écrit, ou l'erreur de l'entrée.
+ */
+public class BookResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final Book book;
+    private final String error;
+
+    public BookResult(String id, Book book, String error) {
+        this.id = id;
+        this.book = book;
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,34 @@
+package com.groupeisi.m2gl.web.graphql.dto;
+
+import java.io.Serializable;
+
+/**
+ * DTO pour la mise à jour d'un livre dans la mutation GraphQL updateBooks.
+ */
+public class BookUpdateInput implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String id;
+    private BookInput input;
+
+    public BookUpdateInput() {
+        // Constructeur par défaut
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public BookInput getInput() {
+        return input;
+    }
+
+    public void setInput(BookInput input) {
+        this.input = input;
+    }
+}
@@ -0,0 +1,39 @@
+package com.groupeisi.m2gl.web.graphql.dto;
+
+import java.io.Serializable;
+
+/**
+ * DTO pour la position d'une page de connexion GraphQL (spécification Relay).
+ */
+public class PageInfo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean hasNextPage;
+    private final boolean hasPreviousPage;
+    private final String startCursor;
+    private final String endCursor;
+
+    public PageInfo(boolean hasNextPage, boolean hasPreviousPage, String startCursor, String endCursor) {
+        this.hasNextPage = hasNextPage;
+        this.hasPreviousPage = hasPreviousPage;
+        this.startCursor = startCursor;
+        this.endCursor = endCursor;
+    }
+
+    public boolean isHasNextPage() {
+        return hasNextPage;
+    }
+
+    public boolean isHasPreviousPage() {
+        return hasPreviousPage;
+    }
+
+    public String getStartCursor() {
+        return startCursor;
+    }
+
+    public String getEndCursor() {
+        return endCursor;
+    }
+}
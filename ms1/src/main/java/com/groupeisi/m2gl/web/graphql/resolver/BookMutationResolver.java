@@ -1,24 +1,50 @@
 package com.groupeisi.m2gl.web.graphql.resolver;
 
+import com.groupeisi.m2gl.config.ApplicationProperties;
 import com.groupeisi.m2gl.domain.Book;
 import com.groupeisi.m2gl.repository.BookRepository;
 import com.groupeisi.m2gl.web.graphql.dto.BookInput;
+import com.groupeisi.m2gl.web.graphql.dto.BookResult;
+import com.groupeisi.m2gl.web.graphql.dto.BookUpdateInput;
+import graphql.GraphQLError;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.graphql.execution.ErrorType;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Resolver GraphQL pour les mutations sur les livres.
+ * <p>
+ * Les mutations par lot ({@code createBooks}, {@code updateBooks}, {@code deleteBooks}) écrivent toutes leurs entrées
+ * en une transaction, les insertions étant envoyées par lots JDBC. Une entrée invalide ou introuvable
+ * est signalée dans son résultat sans empêcher l'écriture des autres ; un échec de la base annule tout le lot.
  */
 @Controller
 public class BookMutationResolver {
 
     private final BookRepository bookRepository;
 
-    public BookMutationResolver(BookRepository bookRepository) {
+    private final ApplicationProperties applicationProperties;
+
+    public BookMutationResolver(
+        BookRepository bookRepository,
+        ApplicationProperties applicationProperties
+    ) {
         this.bookRepository = bookRepository;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -67,22 +93,127 @@ public class BookMutationResolver {
     }
 
     /**
-     * Supprime un livre.
+     * Supprime un livre, lu du cache de second niveau s'il y est : seule son entrée du cache est évincée.
      */
     @MutationMapping
+    @Transactional
     public Boolean deleteBook(@Argument String id) {
-        try {
-            Long bookId = Long.parseLong(id);
-            Optional<Book> optionalBook = bookRepository.findById(bookId);
+        Long bookId = parseId(id);
+        Book book = bookId == null ? null : bookRepository.findById(bookId).orElse(null);
+        if (book == null) {
+            return false;
+        }
+        bookRepository.delete(book);
+        return true;
+    }
 
-            if (optionalBook.isEmpty()) {
-                return false;
+    /**
+     * Crée des livres en une transaction, par un seul {@code saveAll}.
+     */
+    @MutationMapping
+    @Transactional
+    public List<BookResult> createBooks(@Argument List<BookInput> inputs) {
+        checkBatchSize(inputs.size());
+        List<BookResult> results = new ArrayList<>(inputs.size());
+        List<Book> books = new ArrayList<>(inputs.size());
+        for (BookInput input : inputs) {
+            try {
+                Book book = new Book();
+                apply(input, book);
+                books.add(book);
+                results.add(null);
+            } catch (DateTimeParseException e) {
+                results.add(new BookResult(null, null, "datePub invalide : " + input.getDatePub()));
             }
+        }
+        Iterator<Book> created = bookRepository.saveAll(books).iterator();
+        results.replaceAll(result -> result != null ? result : written(created.next()));
+        return results;
+    }
 
-            bookRepository.deleteById(bookId);
-            return true;
+    /**
+     * Met à jour des livres en une transaction : les livres sont lus par un seul {@code findAllById}.
+     */
+    @MutationMapping
+    @Transactional
+    public List<BookResult> updateBooks(@Argument List<BookUpdateInput> updates) {
+        checkBatchSize(updates.size());
+        Map<Long, Book> books = bookRepository
+            .findAllById(updates.stream().map(update -> parseId(update.getId())).filter(Objects::nonNull).toList())
+            .stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<BookResult> results = new ArrayList<>(updates.size());
+        for (BookUpdateInput update : updates) {
+            Book book = books.get(parseId(update.getId()));
+            if (book == null) {
+                results.add(notFound(update.getId()));
+                continue;
+            }
+            try {
+                apply(update.getInput(), book);
+                results.add(written(book));
+            } catch (DateTimeParseException e) {
+                results.add(new BookResult(update.getId(), null, "datePub invalide : " + update.getInput().getDatePub()));
+            }
+        }
+        // Les livres sont gérés : une mise à jour par livre modifié à la validation, non regroupée à cause de @DynamicUpdate
+        return results;
+    }
+
+    /**
+     * Supprime des livres en une transaction. Les livres sont lus en une requête et verrouillés jusqu'à la validation :
+     * une suppression concurrente ne peut les retirer entre-temps, et seuls les livres supprimés ici sont signalés. Les
+     * suppressions sont envoyées par lots JDBC et n'évincent du cache de second niveau que les livres supprimés.
+     */
+    @MutationMapping
+    @Transactional
+    public List<BookResult> deleteBooks(@Argument List<String> ids) {
+        checkBatchSize(ids.size());
+        List<Long> bookIds = ids.stream().map(BookMutationResolver::parseId).filter(Objects::nonNull).distinct().toList();
+        List<Book> books = bookIds.isEmpty() ? List.of() : bookRepository.findAllByIdForUpdate(bookIds);
+        bookRepository.deleteAll(books);
+        Set<Long> deleted = books.stream().map(Book::getId).collect(Collectors.toSet());
+        return ids.stream().map(id -> deleted.contains(parseId(id)) ? new BookResult(id, null, null) : notFound(id)).toList();
+    }
+
+    /**
+     * Signale un lot trop grand comme une erreur du client.
+     */
+    @GraphQlExceptionHandler(IllegalArgumentException.class)
+    public GraphQLError handleInvalidArgument(IllegalArgumentException e) {
+        return GraphQLError.newError().errorType(ErrorType.BAD_REQUEST).message(e.getMessage()).build();
+    }
+
+    private void checkBatchSize(int size) {
+        int maxOperations = applicationProperties.getBookBatch().getMaxOperations();
+        if (size > maxOperations) {
+            throw new IllegalArgumentException("Lot trop grand : " + size + " entrées, au plus " + maxOperations);
+        }
+    }
+
+    private static void apply(BookInput input, Book book) {
+        LocalDate datePub = input.getDatePubAsLocalDate();
+        book.setTitle(input.getTitle());
+        book.setPrix(input.getPrix());
+        book.setAuthor(input.getAuthor());
+        if (datePub != null) {
+            book.setDate_pub(datePub);
+        }
+    }
+
+    private static BookResult written(Book book) {
+        return new BookResult(book.getId().toString(), book, null);
+    }
+
+    private static BookResult notFound(String id) {
+        return new BookResult(id, null, "Livre non trouvé avec l'ID: " + id);
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return Long.parseLong(id);
         } catch (NumberFormatException e) {
-            return false;
+            return null;
         }
     }
 }
@@ -1,60 +1,401 @@
 package com.groupeisi.m2gl.web.graphql.resolver;
 
+import com.groupeisi.m2gl.config.ApplicationProperties;
 import com.groupeisi.m2gl.domain.Book;
 import com.groupeisi.m2gl.repository.BookRepository;
+import com.groupeisi.m2gl.service.BookQueryService;
+import com.groupeisi.m2gl.service.BookSearchIndex;
+import com.groupeisi.m2gl.service.BookSearchService;
+import com.groupeisi.m2gl.service.criteria.BookCriteria;
+import com.groupeisi.m2gl.web.graphql.GraphQlStreams;
+import com.groupeisi.m2gl.web.graphql.dto.BookConnection;
+import com.groupeisi.m2gl.web.graphql.dto.BookEdge;
+import com.groupeisi.m2gl.web.graphql.dto.BookFilter;
+import com.groupeisi.m2gl.web.graphql.dto.PageInfo;
+import graphql.GraphQLError;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import jakarta.persistence.Tuple;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.dataloader.DataLoader;
+import org.springframework.data.domain.Sort;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.ErrorType;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
 /**
  * Resolver GraphQL pour les requêtes (Query) sur les livres.
+ * <p>
+ * Seules les colonnes des champs demandés par l'opération sont lues, par une requête de projection : les livres
+ * renvoyés ne sont pas des entités gérées et ne portent que ces champs et l'identifiant. Les champs {@code book(id:)}
+ * d'une même opération (alias, listes d'identifiants) sont regroupés par un {@link DataLoader} et chargés en une seule
+ * requête ; les livres lus par identifiant déjà présents dans le cache de second niveau y sont pris, entiers, sans
+ * requête. Les listes de livres sont lues par clé (après l'identifiant du dernier livre reçu), sans requête de comptage.
  */
 @Controller
 public class BookQueryResolver {
 
-    private final BookRepository bookRepository;
+    private static final String CURSOR_PREFIX = "book:";
 
-    public BookQueryResolver(BookRepository bookRepository) {
-        this.bookRepository = bookRepository;
+    private final BookSearchService bookSearchService;
+
+    private final BookQueryService bookQueryService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public BookQueryResolver(
+        BookSearchService bookSearchService,
+        BookQueryService bookQueryService,
+        ApplicationProperties applicationProperties,
+        BatchLoaderRegistry batchLoaderRegistry
+    ) {
+        this.bookSearchService = bookSearchService;
+        this.bookQueryService = bookQueryService;
+        this.applicationProperties = applicationProperties;
+        batchLoaderRegistry
+            .forTypePair(BookKey.class, Book.class)
+            .registerMappedBatchLoader((keys, environment) -> Mono.fromCallable(() -> findAllByKey(keys)));
+    }
+
+    /**
+     * Clé du {@link DataLoader} : un même livre demandé avec d'autres champs est une autre clé.
+     */
+    record BookKey(Long id, List<String> fields) {}
+
+    /**
+     * Récupère les premiers livres par identifiant, au plus {@code application.graphql.max-books}.
+     * <p>
+     * Avec {@code @stream}, les livres suivant les {@code initialCount} premiers sont lus d'un stream JPA et envoyés au
+     * fil de leur lecture.
+     */
+    @QueryMapping
+    public List<Book> books(DataFetchingFieldSelectionSet selectionSet, DataFetchingEnvironment environment) {
+        List<String> fields = selectedFields(selectionSet, "");
+        int maxBooks = applicationProperties.getGraphql().getMaxBooks();
+        GraphQlStreams.StreamDirective stream = GraphQlStreams.requested(environment).orElse(null);
+        if (stream == null) {
+            return toBooks(fields, bookQueryService.findFieldsByCriteria(null, fields, null, Sort.Direction.ASC, maxBooks));
+        }
+        int initialCount = Math.min(stream.initialCount(), maxBooks);
+        List<Book> first = initialCount == 0
+            ? List.of()
+            : toBooks(fields, bookQueryService.findFieldsByCriteria(null, fields, null, Sort.Direction.ASC, initialCount));
+        if (first.size() == initialCount && initialCount < maxBooks) {
+            Long after = first.isEmpty() ? null : first.get(first.size() - 1).getId();
+            stream.rest(first.size(), items ->
+                bookQueryService.streamFieldsByCriteria(null, fields, after, maxBooks - initialCount, row ->
+                    items.accept(toGraphQl(toBook(fields, row), selectionSet))
+                )
+            );
+        }
+        return first;
     }
 
     /**
-     * Récupère tous les livres.
+     * Récupère une page de livres triés par identifiant, après le curseur {@code after}.
+     * <p>
+     * Un livre de plus que demandé est lu pour savoir s'il existe une page suivante. {@code first} doit être positif, et
+     * est limité à {@code application.pagination.max-page-size}.
      */
     @QueryMapping
-    public List<Book> books() {
-        return bookRepository.findAll();
+    public BookConnection booksConnection(
+        @Argument Integer first,
+        @Argument String after,
+        @Argument BookFilter filter,
+        DataFetchingFieldSelectionSet selectionSet
+    ) {
+        int pageSize = resolvePageSize(first);
+        List<String> fields = selectedFields(selectionSet, "edges/node/");
+        List<Book> books = toBooks(
+            fields,
+            bookQueryService.findFieldsByCriteria(toCriteria(filter), fields, decodeCursor(after), Sort.Direction.ASC, pageSize + 1)
+        );
+        boolean hasNextPage = books.size() > pageSize;
+        List<BookEdge> edges = books
+            .stream()
+            .limit(pageSize)
+            .map(book -> new BookEdge(encodeCursor(book.getId()), book))
+            .toList();
+        return new BookConnection(
+            edges,
+            new PageInfo(
+                hasNextPage,
+                false,
+                edges.isEmpty() ? null : edges.get(0).getCursor(),
+                edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor()
+            )
+        );
     }
 
     /**
-     * Récupère un livre par son ID.
+     * Récupère un livre par son ID, chargé avec les autres livres demandés par l'opération.
      */
     @QueryMapping
-    public Book book(@Argument String id) {
+    public CompletableFuture<Book> book(
+        @Argument String id,
+        DataFetchingFieldSelectionSet selectionSet,
+        DataLoader<BookKey, Book> bookLoader
+    ) {
         try {
-            Long bookId = Long.parseLong(id);
-            Optional<Book> book = bookRepository.findById(bookId);
-            return book.orElse(null);
+            return bookLoader.load(new BookKey(Long.parseLong(id), selectedFields(selectionSet, "")));
         } catch (NumberFormatException e) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
     }
 
     /**
-     * Recherche des livres par titre.
+     * Recherche des livres par titre, classés par pertinence.
      */
     @QueryMapping
-    public List<Book> booksByTitle(@Argument String title) {
-        return bookRepository.findByTitleContainingIgnoreCase(title);
+    public List<Book> booksByTitle(
+        @Argument String title,
+        @Argument Integer limit,
+        DataFetchingFieldSelectionSet selectionSet,
+        DataFetchingEnvironment environment
+    ) {
+        return search(title, BookSearchIndex.Field.TITLE, resolveLimit(limit), selectionSet, environment);
     }
 
     /**
-     * Recherche des livres par auteur.
+     * Recherche des livres par auteur, classés par pertinence.
      */
     @QueryMapping
-    public List<Book> booksByAuthor(@Argument String author) {
-        return bookRepository.findByAuthorContainingIgnoreCase(author);
+    public List<Book> booksByAuthor(
+        @Argument String author,
+        @Argument Integer limit,
+        DataFetchingFieldSelectionSet selectionSet,
+        DataFetchingEnvironment environment
+    ) {
+        return search(author, BookSearchIndex.Field.AUTHOR, resolveLimit(limit), selectionSet, environment);
+    }
+
+    /**
+     * Seuls les identifiants des livres trouvés sont lus d'abord, puis les champs demandés des livres, dans l'ordre de
+     * pertinence. Avec {@code @stream}, les {@code initialCount} premiers livres sont renvoyés, les suivants lus et envoyés
+     * par lots de {@code application.graphql.stream-batch-size}.
+     */
+    private List<Book> search(
+        String text,
+        BookSearchIndex.Field field,
+        int limit,
+        DataFetchingFieldSelectionSet selectionSet,
+        DataFetchingEnvironment environment
+    ) {
+        List<Long> ids = bookSearchService.searchIds(text, EnumSet.of(field), limit);
+        List<String> fields = selectedFields(selectionSet, "");
+        GraphQlStreams.StreamDirective stream = GraphQlStreams.requested(environment).orElse(null);
+        if (stream == null) {
+            return findAllInOrder(ids, fields);
+        }
+        int initialCount = Math.min(stream.initialCount(), ids.size());
+        List<Book> first = findAllInOrder(ids.subList(0, initialCount), fields);
+        if (initialCount < ids.size()) {
+            List<Long> rest = List.copyOf(ids.subList(initialCount, ids.size()));
+            int batchSize = applicationProperties.getGraphql().getStreamBatchSize();
+            stream.rest(first.size(), items -> {
+                for (int from = 0; from < rest.size(); from += batchSize) {
+                    List<Long> batch = rest.subList(from, Math.min(from + batchSize, rest.size()));
+                    findAllInOrder(batch, fields).forEach(book -> items.accept(toGraphQl(book, selectionSet)));
+                }
+            });
+        }
+        return first;
+    }
+
+    /**
+     * Livres des identifiants donnés, dans leur ordre ; un livre supprimé depuis la recherche est omis.
+     */
+    private List<Book> findAllInOrder(List<Long> ids, List<String> fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> books = findAllById(ids, fields);
+        return ids.stream().map(books::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Charge en une requête les livres d'un lot, avec l'union des champs demandés ; les identifiants inconnus sont absents
+     * du résultat.
+     */
+    private Map<BookKey, Book> findAllByKey(Set<BookKey> keys) {
+        List<Long> ids = keys.stream().map(BookKey::id).distinct().toList();
+        Set<String> requested = keys.stream().flatMap(key -> key.fields().stream()).collect(Collectors.toSet());
+        List<String> fields = BookRepository.PROJECTABLE_FIELDS.stream().filter(requested::contains).toList();
+        Map<Long, Book> books = findAllById(ids, fields);
+        Map<BookKey, Book> found = new HashMap<>();
+        for (BookKey key : keys) {
+            Book book = books.get(key.id());
+            if (book != null) {
+                found.put(key, book);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Livres des identifiants donnés, par identifiant : ceux du cache de second niveau y sont lus, les autres en une
+     * seule requête de projection des {@code fields}.
+     */
+    private Map<Long, Book> findAllById(List<Long> ids, List<String> fields) {
+        Map<Long, Book> books = new HashMap<>();
+        bookQueryService.findCachedByIds(ids).forEach(book -> books.put(book.getId(), book));
+        List<Long> misses = ids.stream().filter(id -> !books.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            BookCriteria criteria = new BookCriteria();
+            criteria.id().setIn(misses);
+            List<Tuple> rows = bookQueryService.findFieldsByCriteria(criteria, fields, null, Sort.Direction.ASC, misses.size());
+            toBooks(fields, rows).forEach(book -> books.put(book.getId(), book));
+        }
+        return books;
+    }
+
+    /**
+     * Colonnes des champs de {@code Book} demandés sous {@code path}, dans l'ordre de l'entité ; l'identifiant est
+     * toujours lu.
+     */
+    private static List<String> selectedFields(DataFetchingFieldSelectionSet selectionSet, String path) {
+        return BookRepository.PROJECTABLE_FIELDS.stream()
+            .filter(column -> "id".equals(column) || selectionSet.contains(path + toSchemaField(column)))
+            .toList();
+    }
+
+    private static String toSchemaField(String column) {
+        return "date_pub".equals(column) ? "datePub" : column;
+    }
+
+    /**
+     * Livres non gérés, ne portant que les champs projetés.
+     */
+    private static List<Book> toBooks(List<String> fields, List<Tuple> rows) {
+        List<Book> books = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            books.add(toBook(fields, row));
+        }
+        return books;
+    }
+
+    private static Book toBook(List<String> fields, Tuple row) {
+        Book book = new Book();
+        for (String field : fields) {
+            switch (field) {
+                case "id" -> book.setId(row.get(field, Long.class));
+                case "title" -> book.setTitle(row.get(field, String.class));
+                case "prix" -> book.setPrix(row.get(field, Double.class));
+                case "author" -> book.setAuthor(row.get(field, String.class));
+                case "date_pub" -> book.setDate_pub(row.get(field, LocalDate.class));
+                default -> throw new IllegalStateException("Champ non projeté : " + field);
+            }
+        }
+        return book;
+    }
+
+    /**
+     * Valeur GraphQL d'un livre envoyé par {@code @stream}, hors de l'exécution de graphql-java : les champs de
+     * {@code Book} sont tous des scalaires, rendus comme par {@link BookTypeResolver}.
+     */
+    private static Map<String, Object> toGraphQl(Book book, DataFetchingFieldSelectionSet selectionSet) {
+        Map<String, Object> value = new LinkedHashMap<>();
+        for (SelectedField field : selectionSet.getImmediateFields()) {
+            Object fieldValue = switch (field.getName()) {
+                case "id" -> book.getId() == null ? null : book.getId().toString();
+                case "title" -> book.getTitle();
+                case "prix" -> book.getPrix();
+                case "author" -> book.getAuthor();
+                case "datePub" -> book.getDate_pub() == null ? null : book.getDate_pub().format(DateTimeFormatter.ISO_LOCAL_DATE);
+                case "__typename" -> "Book";
+                default -> throw new IllegalStateException("Champ inconnu : " + field.getName());
+            };
+            value.put(field.getResultKey(), fieldValue);
+        }
+        return value;
+    }
+
+    /**
+     * Signale un argument invalide (curseur, date) comme une erreur du client.
+     */
+    @GraphQlExceptionHandler({ IllegalArgumentException.class, DateTimeParseException.class })
+    public GraphQLError handleInvalidArgument(RuntimeException e) {
+        return GraphQLError.newError().errorType(ErrorType.BAD_REQUEST).message(e.getMessage()).build();
+    }
+
+    private static BookCriteria toCriteria(BookFilter filter) {
+        BookCriteria criteria = new BookCriteria();
+        if (filter == null) {
+            return criteria;
+        }
+        if (filter.getAuthor() != null) {
+            criteria.author().setEquals(filter.getAuthor());
+        }
+        if (filter.getPrixMin() != null) {
+            criteria.prix().setGreaterThanOrEqual(filter.getPrixMin());
+        }
+        if (filter.getPrixMax() != null) {
+            criteria.prix().setLessThanOrEqual(filter.getPrixMax());
+        }
+        if (filter.getDatePubFrom() != null) {
+            criteria.datePub().setGreaterThanOrEqual(LocalDate.parse(filter.getDatePubFrom()));
+        }
+        if (filter.getDatePubTo() != null) {
+            criteria.datePub().setLessThanOrEqual(LocalDate.parse(filter.getDatePubTo()));
+        }
+        return criteria;
+    }
+
+    /**
+     * Curseur opaque d'un livre, encodant son identifiant.
+     */
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!decoded.startsWith(CURSOR_PREFIX)) {
+            throw new IllegalArgumentException("Curseur invalide : " + cursor);
+        }
+        return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+    }
+
+    /**
+     * Taille d'une page de {@code booksConnection} : une page vide n'aurait pas de curseur pour passer à la suivante.
+     */
+    private int resolvePageSize(Integer first) {
+        if (first == null) {
+            return applicationProperties.getPagination().getDefaultPageSize();
+        }
+        if (first < 1) {
+            throw new IllegalArgumentException("first doit être positif : " + first);
+        }
+        return Math.min(first, applicationProperties.getPagination().getMaxPageSize());
+    }
+
+    /**
+     * Limite le nombre de résultats d'une recherche à {@code application.pagination.max-page-size}.
+     */
+    private int resolveLimit(Integer limit) {
+        int maxPageSize = applicationProperties.getPagination().getMaxPageSize();
+        return limit == null ? maxPageSize : Math.max(0, Math.min(limit, maxPageSize));
     }
 }
@@ -0,0 +1,68 @@
+package com.groupeisi.m2gl.web.graphql.resolver;
+
+import com.groupeisi.m2gl.service.BookChangePublisher;
+import com.groupeisi.m2gl.service.dto.BookChangeDTO;
+import com.groupeisi.m2gl.web.graphql.dto.BookChangeFilter;
+import graphql.GraphQLError;
+import java.util.Objects;
+import java.util.function.Predicate;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+/**
+ * Resolver GraphQL pour les abonnements (Subscription) aux changements des livres, servis par le transport WebSocket
+ * graphql-ws.
+ * <p>
+ * Le filtre est appliqué par le serveur avant la mise en attente des changements : un abonné ne reçoit, ni ne garde en
+ * mémoire, que les changements qui le concernent.
+ */
+@Controller
+public class BookSubscriptionResolver {
+
+    private final BookChangePublisher bookChangePublisher;
+
+    public BookSubscriptionResolver(BookChangePublisher bookChangePublisher) {
+        this.bookChangePublisher = bookChangePublisher;
+    }
+
+    /**
+     * Suit les écritures des livres correspondant au filtre.
+     */
+    @SubscriptionMapping
+    public Flux<BookChangeDTO> bookChanged(@Argument BookChangeFilter filter) {
+        return bookChangePublisher.subscribe(toPredicate(filter));
+    }
+
+    /**
+     * Signale un identifiant invalide dans le filtre comme une erreur du client.
+     */
+    @GraphQlExceptionHandler(NumberFormatException.class)
+    public GraphQLError handleInvalidArgument(NumberFormatException e) {
+        return GraphQLError.newError().errorType(ErrorType.BAD_REQUEST).message("Identifiant invalide : " + e.getMessage()).build();
+    }
+
+    private static Predicate<BookChangeDTO> toPredicate(BookChangeFilter filter) {
+        Predicate<BookChangeDTO> predicate = change -> true;
+        if (filter == null) {
+            return predicate;
+        }
+        if (filter.getIdMin() != null) {
+            long idMin = Long.parseLong(filter.getIdMin());
+            predicate = predicate.and(change -> change.getId() >= idMin);
+        }
+        if (filter.getIdMax() != null) {
+            long idMax = Long.parseLong(filter.getIdMax());
+            predicate = predicate.and(change -> change.getId() <= idMax);
+        }
+        if (filter.getAuthor() != null) {
+            String author = filter.getAuthor();
+            // Un livre supprimé est filtré sur l'auteur qu'il avait avant sa suppression
+            predicate = predicate.and(change -> Objects.equals(author, change.getAuthor()));
+        }
+        return predicate;
+    }
+}
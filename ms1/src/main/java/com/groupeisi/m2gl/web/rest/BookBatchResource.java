@@ -0,0 +1,83 @@
+package com.groupeisi.m2gl.web.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import com.groupeisi.m2gl.service.BookBatchService;
+import com.groupeisi.m2gl.service.IdempotencyService;
+import com.groupeisi.m2gl.service.dto.BookOperationDTO;
+import com.groupeisi.m2gl.service.dto.BookOperationResultDTO;
+import com.groupeisi.m2gl.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller running several {@link com.groupeisi.m2gl.domain.Book} operations in a single call.
+ */
+@RestController
+@RequestMapping("/api")
+public class BookBatchResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookBatchResource.class);
+
+    private static final String ENTITY_NAME = "ms1Book";
+
+    private final BookBatchService bookBatchService;
+
+    private final IdempotencyService idempotencyService;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ObjectMapper objectMapper;
+
+    public BookBatchResource(
+        BookBatchService bookBatchService,
+        IdempotencyService idempotencyService,
+        ApplicationProperties applicationProperties,
+        ObjectMapper objectMapper
+    ) {
+        this.bookBatchService = bookBatchService;
+        this.idempotencyService = idempotencyService;
+        this.applicationProperties = applicationProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * {@code POST  /batch} : run book operations in order.
+     * <p>
+     * Each operation is a {@code create}, {@code get}, {@code update}, {@code patch} or {@code delete}, with the
+     * {@code id} of the book and the {@code book} to write, as the matching call to {@code /api/books} would take them.
+     *
+     * @param idempotencyKey the optional {@code Idempotency-Key} header: a retry with the same key and the same operations
+     * gets the results of the first call instead of running the operations again. A retry answers {@code 409 (Conflict)}
+     * if the first call is still running after {@code application.idempotency.wait-timeout}, and
+     * {@code 422 (Unprocessable Entity)} if the key was used for other operations.
+     * @param atomic {@code true} to run all the operations in one transaction, rolled back as a whole if one of them
+     * fails; {@code false} to run each operation in its own transaction.
+     * @param operations the operations, at most {@code application.book-batch.max-operations}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the result of each operation in body, with its
+     * own status, or with status {@code 400 (Bad Request)} if there are too many operations.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookOperationResultDTO>> runBookOperations(
+        @RequestHeader(value = BookResource.HEADER_IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        @RequestParam(name = "atomic", defaultValue = "false") boolean atomic,
+        @RequestBody List<BookOperationDTO> operations
+    ) {
+        LOG.debug("REST request to run {} Book operations, atomic : {}", operations.size(), atomic);
+        if (operations.size() > applicationProperties.getBookBatch().getMaxOperations()) {
+            throw new BadRequestAlertException("Too many operations", ENTITY_NAME, "batchtoolarge");
+        }
+        BookResource.checkIdempotencyKey(idempotencyKey);
+        // Hashed before running the operations, which set the ids of the created books
+        String requestHash = idempotencyKey != null
+            ? IdempotencyService.hash(atomic + "\n" + objectMapper.valueToTree(operations).toString())
+            : null;
+        List<BookOperationResultDTO> results = idempotencyService.execute("runBookOperations", idempotencyKey, () -> requestHash, () ->
+            bookBatchService.execute(operations, atomic)
+        );
+        return ResponseEntity.ok(results);
+    }
+}
@@ -1,24 +1,67 @@
 package com.groupeisi.m2gl.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.config.ApplicationProperties;
 import com.groupeisi.m2gl.domain.Book;
 import com.groupeisi.m2gl.repository.BookRepository;
+import com.groupeisi.m2gl.service.BookChangeFeedService;
+import com.groupeisi.m2gl.service.BookExportService;
+import com.groupeisi.m2gl.service.BookFileFormat;
+import com.groupeisi.m2gl.service.BookImportService;
+import com.groupeisi.m2gl.service.BookQueryService;
+import com.groupeisi.m2gl.service.BookSearchIndex;
+import com.groupeisi.m2gl.service.BookSearchService;
+import com.groupeisi.m2gl.service.BookStatisticsService;
+import com.groupeisi.m2gl.service.CountMode;
+import com.groupeisi.m2gl.service.IdempotencyService;
+import com.groupeisi.m2gl.service.criteria.BookCriteria;
+import com.groupeisi.m2gl.service.dto.BookImportReportDTO;
+import com.groupeisi.m2gl.service.dto.BookStatisticsDTO;
 import com.groupeisi.m2gl.web.rest.errors.BadRequestAlertException;
+import com.groupeisi.m2gl.web.rest.errors.PreconditionFailedAlertException;
+import jakarta.persistence.Tuple;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.groupeisi.m2gl.domain.Book}.
+ * <p>
+ * Besides JSON, books are read and written as Smile ({@code application/x-jackson-smile}) and CBOR
+ * ({@code application/cbor}), negotiated with the {@code Accept} and {@code Content-Type} headers.
  */
 @RestController
 @RequestMapping("/api/books")
@@ -29,47 +72,157 @@ public class BookResource {
 
     private static final String ENTITY_NAME = "ms1Book";
 
+    private static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+
+    static final String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /**
+     * Fields that can be sorted on, all of them indexed.
+     */
+    private static final List<String> SORTABLE_FIELDS = List.of("id", "prix", "author", "date_pub");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final BookRepository bookRepository;
 
-    public BookResource(BookRepository bookRepository) {
+    private final BookExportService bookExportService;
+
+    private final BookImportService bookImportService;
+
+    private final BookSearchService bookSearchService;
+
+    private final BookQueryService bookQueryService;
+
+    private final BookStatisticsService bookStatisticsService;
+
+    private final BookChangeFeedService bookChangeFeedService;
+
+    private final IdempotencyService idempotencyService;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ObjectMapper objectMapper;
+
+    public BookResource(
+        BookRepository bookRepository,
+        BookExportService bookExportService,
+        BookImportService bookImportService,
+        BookSearchService bookSearchService,
+        BookQueryService bookQueryService,
+        BookStatisticsService bookStatisticsService,
+        BookChangeFeedService bookChangeFeedService,
+        IdempotencyService idempotencyService,
+        ApplicationProperties applicationProperties,
+        ObjectMapper objectMapper
+    ) {
         this.bookRepository = bookRepository;
+        this.bookExportService = bookExportService;
+        this.bookImportService = bookImportService;
+        this.bookSearchService = bookSearchService;
+        this.bookQueryService = bookQueryService;
+        this.bookStatisticsService = bookStatisticsService;
+        this.bookChangeFeedService = bookChangeFeedService;
+        this.idempotencyService = idempotencyService;
+        this.applicationProperties = applicationProperties;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * {@code POST  /books} : Create a new book.
+     * <p>
+     * Sent with an {@code Idempotency-Key} header, the book is created once: a retry with the same key and the same book
+     * gets the response of the first call, waiting for it if it is still running.
      *
+     * @param idempotencyKey the optional {@code Idempotency-Key} header.
      * @param book the book to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new book, or with status {@code 400 (Bad Request)} if the book has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new book, or with status {@code 400 (Bad Request)} if the book has already an ID,
+     * or with status {@code 409 (Conflict)} if the first call with the same key is still running after
+     * {@code application.idempotency.wait-timeout}, or with status {@code 422 (Unprocessable Entity)} if the key was used
+     * to create another book.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("")
-    public ResponseEntity<Book> createBook(@RequestBody Book book) throws URISyntaxException {
+    public ResponseEntity<Book> createBook(
+        @RequestHeader(value = HEADER_IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        @RequestBody Book book
+    ) throws URISyntaxException {
         LOG.debug("REST request to save Book : {}", book);
-        if (book.getId() != null) {
-            throw new BadRequestAlertException("A new book cannot already have an ID", ENTITY_NAME, "idexists");
-        }
-        book = bookRepository.save(book);
-        return ResponseEntity.created(new URI("/api/books/" + book.getId()))
-            .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, book.getId().toString()))
-            .body(book);
+        checkIdempotencyKey(idempotencyKey);
+        String requestHash = idempotencyKey != null ? IdempotencyService.hash(objectMapper.valueToTree(book).toString()) : null;
+        return idempotencyService.execute("createBook", idempotencyKey, () -> requestHash, () -> {
+            if (book.getId() != null) {
+                throw new BadRequestAlertException("A new book cannot already have an ID", ENTITY_NAME, "idexists");
+            }
+            Book result = bookRepository.save(book);
+            return ResponseEntity.created(new URI("/api/books/" + result.getId()))
+                .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                .body(result);
+        });
+    }
+
+    /**
+     * {@code POST  /books/_import} : Import books in bulk from a NDJSON or CSV body.
+     * <p>
+     * The body is parsed as a stream and the books are written in chunks, each in its own transaction: a chunk that
+     * fails is rolled back without undoing the chunks already committed.
+     * <p>
+     * The CSV columns are matched by the names of the header written by {@code /export}, in any order. Rows carrying an
+     * id are rejected, like a book created with an id: to import an export again, drop its {@code id} column or field.
+     *
+     * @param contentType the content type of the body, {@code application/x-ndjson} or {@code text/csv}.
+     * @param idempotencyKey the optional {@code Idempotency-Key} header: a retry with the same key and the same body gets
+     * the report of the first import instead of importing the books again.
+     * @param body the books to import, one per line.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report,
+     * or with status {@code 400 (Bad Request)} if the content type is not supported,
+     * or with status {@code 409 (Conflict)} if the first import with the same key is still running after
+     * {@code application.idempotency.wait-timeout}, or with status {@code 422 (Unprocessable Entity)} if the key was used
+     * to import another body.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/_import", consumes = { "application/x-ndjson", "text/csv" })
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<BookImportReportDTO> importBooks(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        @RequestHeader(value = HEADER_IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+        InputStream body
+    ) throws IOException {
+        LOG.debug("REST request to import Books as {}", contentType);
+        BookFileFormat format = BookFileFormat.fromMediaType(contentType).orElseThrow(() ->
+            new BadRequestAlertException("Unsupported import format", ENTITY_NAME, "formatinvalid")
+        );
+        checkIdempotencyKey(idempotencyKey);
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        // The body is hashed as it is imported, a retry reads it only to hash it
+        IdempotencyService.HashingInputStream hashedBody = new IdempotencyService.HashingInputStream(body);
+        BookImportReportDTO report = idempotencyService.execute("importBooks", idempotencyKey, hashedBody::hash, () ->
+            bookImportService.importBooks(format, new InputStreamReader(hashedBody, charset))
+        );
+        return ResponseEntity.ok(report);
     }
 
     /**
      * {@code PUT  /books/:id} : Updates an existing book.
+     * <p>
+     * The book is read through the second level cache and only the changed columns are written: a cached book costs a
+     * single {@code UPDATE}, or no statement at all when nothing changed.
      *
      * @param id the id of the book to save.
+     * @param ifMatch the optional {@code If-Match} header, the update only happens if it matches the current ETag of the book.
      * @param book the book to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated book,
      * or with status {@code 400 (Bad Request)} if the book is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the book was modified since the ETag given in {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the book couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Book> updateBook(@PathVariable(value = "id", required = false) final Long id, @RequestBody Book book)
-        throws URISyntaxException {
+    public ResponseEntity<Book> updateBook(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Book book
+    ) throws URISyntaxException {
         LOG.debug("REST request to update Book : {}, {}", id, book);
         if (book.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -78,30 +231,47 @@ public class BookResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!bookRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Book existingBook = bookRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        checkIfMatch(ifMatch, existingBook);
 
-        book = bookRepository.save(book);
+        existingBook.setTitle(book.getTitle());
+        existingBook.setPrix(book.getPrix());
+        existingBook.setAuthor(book.getAuthor());
+        existingBook.setDate_pub(book.getDate_pub());
+        // Flush so that the returned ETag carries the incremented version
+        book = bookRepository.saveAndFlush(existingBook);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, book.getId().toString()))
+            .eTag(eTag(book))
             .body(book);
     }
 
     /**
      * {@code PATCH  /books/:id} : Partial updates given fields of an existing book, field will ignore if it is null
+     * <p>
+     * As for {@code PUT}, a cached book costs a single {@code UPDATE} of the given columns.
      *
      * @param id the id of the book to save.
+     * @param ifMatch the optional {@code If-Match} header, the update only happens if it matches the current ETag of the book.
      * @param book the book to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated book,
      * or with status {@code 400 (Bad Request)} if the book is not valid,
      * or with status {@code 404 (Not Found)} if the book is not found,
+     * or with status {@code 412 (Precondition Failed)} if the book was modified since the ETag given in {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the book couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
-    @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public ResponseEntity<Book> partialUpdateBook(@PathVariable(value = "id", required = false) final Long id, @RequestBody Book book)
-        throws URISyntaxException {
+    @PatchMapping(
+        value = "/{id}",
+        consumes = { "application/json", "application/merge-patch+json", "application/x-jackson-smile", "application/cbor" }
+    )
+    public ResponseEntity<Book> partialUpdateBook(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Book book
+    ) throws URISyntaxException {
         LOG.debug("REST request to partial update Book partially : {}, {}", id, book);
         if (book.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -110,72 +280,448 @@ public class BookResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!bookRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<Book> result = bookRepository
-            .findById(book.getId())
-            .map(existingBook -> {
-                if (book.getTitle() != null) {
-                    existingBook.setTitle(book.getTitle());
-                }
-                if (book.getPrix() != null) {
-                    existingBook.setPrix(book.getPrix());
-                }
-                if (book.getAuthor() != null) {
-                    existingBook.setAuthor(book.getAuthor());
-                }
-                if (book.getDate_pub() != null) {
-                    existingBook.setDate_pub(book.getDate_pub());
-                }
-
-                return existingBook;
-            })
-            .map(bookRepository::save);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, book.getId().toString())
-        );
+        Book existingBook = bookRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        checkIfMatch(ifMatch, existingBook);
+
+        if (book.getTitle() != null) {
+            existingBook.setTitle(book.getTitle());
+        }
+        if (book.getPrix() != null) {
+            existingBook.setPrix(book.getPrix());
+        }
+        if (book.getAuthor() != null) {
+            existingBook.setAuthor(book.getAuthor());
+        }
+        if (book.getDate_pub() != null) {
+            existingBook.setDate_pub(book.getDate_pub());
+        }
+        // Flush so that the returned ETag carries the incremented version
+        Book result = bookRepository.saveAndFlush(existingBook);
+
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, book.getId().toString()))
+            .eTag(eTag(result))
+            .body(result);
     }
 
     /**
-     * {@code GET  /books} : get all the books.
+     * {@code GET  /books} : get a page of the books matching the criteria.
+     * <p>
+     * Sorted by id, pages are read with a keyset (cursor): the next page is advertised in the {@code Link} header
+     * ({@code rel="next"}) and is fetched by passing the id of the last book received as {@code after}, so the cost of a
+     * page does not depend on how deep the client pages. With another sort, or when {@code page} is given, pages are
+     * read by offset and the total number of matching books is returned in the {@code X-Total-Count} header: counted on
+     * every page by default ({@code count=exact}), reused until the next book write ({@code count=cached}), or not
+     * counted at all ({@code count=none}), the {@code Link} header then only telling whether there is a next page.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the id of the last book of the previous page, or {@code null} for the first page.
+     * @param page the number of the page to read by offset, starting at 0.
+     * @param limit the maximum number of books to return, bounded by {@code application.pagination.max-page-size}.
+     * @param count how the total of an offset page is obtained: {@code exact}, {@code cached} or {@code none}.
+     * @param sort the sort order, on {@code id}, {@code prix}, {@code author} or {@code date_pub}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body,
+     * or with status {@code 304 (Not Modified)} if the page still matches the ETag given in {@code If-None-Match}.
      */
     @GetMapping("")
-    public List<Book> getAllBooks() {
-        LOG.debug("REST request to get all Books");
-        return bookRepository.findAll();
+    public ResponseEntity<List<Book>> getAllBooks(
+        BookCriteria criteria,
+        @RequestParam(value = "after", required = false) Long after,
+        @RequestParam(value = "page", required = false) Integer page,
+        @RequestParam(value = "limit", required = false) Integer limit,
+        @RequestParam(value = "count", defaultValue = "exact") String count,
+        @SortDefault(sort = "id", direction = Sort.Direction.ASC) Sort sort
+    ) {
+        LOG.debug("REST request to get a page of Books by criteria : {}", criteria);
+        int pageSize = resolvePageSize(limit);
+        CountMode countMode = resolveCountMode(count);
+        Sort order = resolveSort(sort);
+        Sort.Direction keysetDirection = resolveKeysetDirection(order, page);
+        if (keysetDirection == null) {
+            Slice<Book> books = bookQueryService.findByCriteria(
+                criteria,
+                resolvePageRequest(page, pageSize, order, after),
+                countMode
+            );
+            return ResponseEntity.ok().headers(offsetPageHeaders(books)).eTag(collectionETag(books.getContent())).body(books.getContent());
+        }
+        // One extra row tells us whether there is a next page without running a count query
+        List<Book> books = bookQueryService.findByCriteria(criteria, after, keysetDirection, pageSize + 1);
+        Long last = null;
+        if (books.size() > pageSize) {
+            books = books.subList(0, pageSize);
+            last = books.get(pageSize - 1).getId();
+        }
+        return ResponseEntity.ok().headers(nextPageHeaders(last, pageSize)).eTag(collectionETag(books)).body(books);
+    }
+
+    /**
+     * {@code GET  /books?fields=title,prix} : get a page of the books matching the criteria, with only the requested fields.
+     * <p>
+     * Same filters and pagination as {@code GET  /books}, but only the requested columns are selected and no entity is
+     * loaded in the persistence context. The id is always returned.
+     *
+     * @param fields the comma separated fields to return, among {@code id}, {@code title}, {@code prix}, {@code author},
+     * {@code date_pub} and {@code version}.
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the id of the last book of the previous page, or {@code null} for the first page.
+     * @param page the number of the page to read by offset, starting at 0.
+     * @param limit the maximum number of books to return, bounded by {@code application.pagination.max-page-size}.
+     * @param count how the total of an offset page is obtained: {@code exact}, {@code cached} or {@code none}.
+     * @param sort the sort order, on {@code id}, {@code prix}, {@code author} or {@code date_pub}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of partial books in body,
+     * or with status {@code 304 (Not Modified)} if the page still matches the ETag given in {@code If-None-Match},
+     * or with status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllBookFields(
+        @RequestParam("fields") String fields,
+        BookCriteria criteria,
+        @RequestParam(value = "after", required = false) Long after,
+        @RequestParam(value = "page", required = false) Integer page,
+        @RequestParam(value = "limit", required = false) Integer limit,
+        @RequestParam(value = "count", defaultValue = "exact") String count,
+        @SortDefault(sort = "id", direction = Sort.Direction.ASC) Sort sort
+    ) {
+        LOG.debug("REST request to get a page of Books fields {} by criteria : {}", fields, criteria);
+        List<String> projection = resolveFields(fields);
+        int pageSize = resolvePageSize(limit);
+        CountMode countMode = resolveCountMode(count);
+        Sort order = resolveSort(sort);
+        Sort.Direction keysetDirection = resolveKeysetDirection(order, page);
+        // The version is always selected, for the ETag
+        List<String> selection = new ArrayList<>(projection);
+        if (!selection.contains("version")) {
+            selection.add("version");
+        }
+        if (keysetDirection == null) {
+            Slice<Tuple> rows = bookQueryService.findFieldsByCriteria(
+                criteria,
+                selection,
+                resolvePageRequest(page, pageSize, order, after),
+                countMode
+            );
+            return ResponseEntity.ok()
+                .headers(offsetPageHeaders(rows))
+                .eTag(fieldsETag(projection, rows.getContent()))
+                .body(toFieldMaps(projection, rows.getContent()));
+        }
+        List<Tuple> rows = bookQueryService.findFieldsByCriteria(criteria, selection, after, keysetDirection, pageSize + 1);
+        Long last = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            last = rows.get(pageSize - 1).get("id", Long.class);
+        }
+        return ResponseEntity.ok()
+            .headers(nextPageHeaders(last, pageSize))
+            .eTag(fieldsETag(projection, rows))
+            .body(toFieldMaps(projection, rows));
+    }
+
+    /**
+     * {@code GET  /books/_search?query=:query} : search the books by title and author.
+     * <p>
+     * Served from the in-memory trigram index, so the cost does not depend on the size of the catalogue. Case and
+     * accents are ignored and close spellings also match, ranked after the books containing the query.
+     *
+     * @param query the text to look for.
+     * @param field the field to search in, {@code title} or {@code author}, both when absent.
+     * @param limit the maximum number of books to return, bounded by {@code application.pagination.max-page-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the matching books in body, the most relevant first.
+     */
+    @GetMapping("/_search")
+    public List<Book> searchBooks(
+        @RequestParam("query") String query,
+        @RequestParam(value = "field", required = false) String field,
+        @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        LOG.debug("REST request to search Books for query {}", query);
+        return bookSearchService.search(query, resolveSearchFields(field), resolvePageSize(limit));
+    }
+
+    /**
+     * {@code GET  /books/changes} : follow the book writes as Server-Sent Events.
+     * <p>
+     * Every committed create, update and delete is sent as an event named {@code created}, {@code updated} or
+     * {@code deleted}, with an increasing id. A client reconnecting with {@code Last-Event-ID} first receives the
+     * changes it missed, or a {@code reset} event when they are no longer retained and the books must be reloaded.
+     *
+     * @param lastEventId the id of the last event received, sent by the client when it reconnects.
+     * @return the event stream.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SseEmitter followBookChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        LOG.debug("REST request to follow Book changes after {}", lastEventId);
+        return bookChangeFeedService.subscribe(lastEventId);
+    }
+
+    /**
+     * {@code GET  /books/stats} : get the statistics of the catalogue.
+     * <p>
+     * Served from an in-memory aggregate kept up to date by every book write, without querying the database.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the statistics in body,
+     * or with status {@code 304 (Not Modified)} if they did not change since the ETag given in {@code If-None-Match}.
+     */
+    @GetMapping("/stats")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<BookStatisticsDTO> getBookStatistics() {
+        LOG.debug("REST request to get Book statistics");
+        // The revision is read first: the statistics can only be more recent than their ETag
+        String revision = bookStatisticsService.getRevision();
+        return ResponseEntity.ok().eTag("\"" + revision + "\"").body(bookStatisticsService.getStatistics());
+    }
+
+    /**
+     * {@code GET  /books/export} : stream the whole catalogue, one book per line.
+     * <p>
+     * Books are written as they are read from the database, so the export runs in constant memory whatever the size of
+     * the catalogue.
+     *
+     * @param format the output format, {@code ndjson} (default) or {@code csv}.
+     * @param fields the comma separated fields to export, all of them when absent; the id is always exported.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed books in body,
+     * or with status {@code 400 (Bad Request)} if the format or a field is not supported.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+        @RequestParam(value = "format", defaultValue = "ndjson") String format,
+        @RequestParam(value = "fields", required = false) String fields
+    ) {
+        LOG.debug("REST request to export all Books as {}", format);
+        BookFileFormat exportFormat;
+        try {
+            exportFormat = BookFileFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "formatinvalid");
+        }
+        List<String> projection = fields != null ? resolveFields(fields) : null;
+        StreamingResponseBody body = projection != null
+            ? out -> bookExportService.export(exportFormat, projection, out)
+            : out -> bookExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books." + exportFormat.getExtension() + "\"")
+            .body(body);
     }
 
     /**
      * {@code GET  /books/:id} : get the "id" book.
      *
      * @param id the id of the book to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the book,
+     * or with status {@code 304 (Not Modified)} if the book still matches the ETag given in {@code If-None-Match},
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
     public ResponseEntity<Book> getBook(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Book : {}", id);
         Optional<Book> book = bookRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(book);
+        // The ETag lets Spring answer a matching If-None-Match with 304 before the body is serialized
+        return book.map(found -> ResponseEntity.ok().eTag(eTag(found)).body(found)).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
      * {@code DELETE  /books/:id} : delete the "id" book.
+     * <p>
+     * The book is read through the second level cache, so a cached book costs a single {@code DELETE} statement, and
+     * only its own cache entry is evicted.
      *
      * @param id the id of the book to delete.
-     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+     * or with status {@code 404 (Not Found)} if there was no such book.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBook(@PathVariable("id") Long id) {
         LOG.debug("REST request to delete Book : {}", id);
-        bookRepository.deleteById(id);
+        Book book = bookRepository.findById(id).orElse(null);
+        if (book == null) {
+            return ResponseEntity.notFound().build();
+        }
+        bookRepository.delete(book);
         return ResponseEntity.noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    static void checkIdempotencyKey(String idempotencyKey) {
+        if (!IdempotencyService.isValidKey(idempotencyKey)) {
+            throw new BadRequestAlertException("Invalid Idempotency-Key", ENTITY_NAME, "idempotencykeyinvalid");
+        }
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return applicationProperties.getPagination().getDefaultPageSize();
+        }
+        if (limit < 1) {
+            throw new BadRequestAlertException("Invalid page size", ENTITY_NAME, "limitinvalid");
+        }
+        return Math.min(limit, applicationProperties.getPagination().getMaxPageSize());
+    }
+
+    /**
+     * Link header to the next keyset page, empty on the last page.
+     */
+    private static HttpHeaders nextPageHeaders(Long last, int pageSize) {
+        HttpHeaders headers = new HttpHeaders();
+        if (last != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", last)
+                .replaceQueryParam("limit", pageSize)
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
+    /**
+     * Requested fields in the order of the entity, always starting with the id.
+     */
+    private static List<String> resolveFields(String fields) {
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty() && !BookRepository.PROJECTABLE_FIELDS.contains(name)) {
+                throw new BadRequestAlertException("Unknown field " + name, ENTITY_NAME, "fieldsinvalid");
+            }
+            requested.add(name);
+        }
+        requested.add("id");
+        return BookRepository.PROJECTABLE_FIELDS.stream().filter(requested::contains).toList();
+    }
+
+    private Set<BookSearchIndex.Field> resolveSearchFields(String field) {
+        if (field == null) {
+            return EnumSet.allOf(BookSearchIndex.Field.class);
+        }
+        try {
+            return EnumSet.of(BookSearchIndex.Field.valueOf(field.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported search field", ENTITY_NAME, "fieldinvalid");
+        }
+    }
+
+    private static Sort resolveSort(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_FIELDS.contains(order.getProperty())) {
+                throw new BadRequestAlertException("Only sorting by id, prix, author or date_pub is supported", ENTITY_NAME, "sortinvalid");
+            }
+        }
+        return sort;
+    }
+
+    /**
+     * Direction of a keyset page, or {@code null} when the page is read by offset.
+     */
+    private static Sort.Direction resolveKeysetDirection(Sort sort, Integer page) {
+        List<Sort.Order> orders = sort.toList();
+        if (page != null || orders.size() != 1 || !"id".equals(orders.get(0).getProperty())) {
+            return null;
+        }
+        return orders.get(0).getDirection();
+    }
+
+    private static PageRequest resolvePageRequest(Integer page, int pageSize, Sort sort, Long after) {
+        if (after != null) {
+            throw new BadRequestAlertException("The after cursor is only supported when sorting by id", ENTITY_NAME, "afterinvalid");
+        }
+        if (page != null && page < 0) {
+            throw new BadRequestAlertException("Invalid page number", ENTITY_NAME, "pageinvalid");
+        }
+        // The id breaks the ties, so that the pages do not overlap
+        Sort order = sort.getOrderFor("id") != null ? sort : sort.and(Sort.by("id"));
+        return PageRequest.of(page != null ? page : 0, pageSize, order);
+    }
+
+    private static CountMode resolveCountMode(String count) {
+        try {
+            return CountMode.fromName(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported count mode", ENTITY_NAME, "countinvalid");
+        }
+    }
+
+    /**
+     * Total count, unless the page was read without it, and Link header to the next offset page.
+     */
+    private static HttpHeaders offsetPageHeaders(Slice<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page instanceof Page<?> counted) {
+            headers.add(HEADER_X_TOTAL_COUNT, Long.toString(counted.getTotalElements()));
+        }
+        if (page.hasNext()) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("page", page.getNumber() + 1)
+                .replaceQueryParam("limit", page.getSize())
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
+    private static List<Map<String, Object>> toFieldMaps(List<String> projection, List<Tuple> rows) {
+        List<Map<String, Object>> books = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> book = new LinkedHashMap<>();
+            for (String field : projection) {
+                book.put(field, row.get(field));
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+    /**
+     * Strong ETag of a book, derived from its id and optimistic lock version.
+     */
+    private static String eTag(Book book) {
+        return "\"" + book.getId() + "-" + book.getVersion() + "\"";
+    }
+
+    /**
+     * Strong ETag of a list of books: a digest of the id and version of each book, in order.
+     */
+    private static String collectionETag(List<Book> books) {
+        StringBuilder versions = new StringBuilder(books.size() * 16);
+        for (Book book : books) {
+            versions.append(book.getId()).append('-').append(book.getVersion()).append(',');
+        }
+        return digestETag(versions);
+    }
+
+    /**
+     * Strong ETag of a list of partial books: a digest of the fields, then of the id and version of each book, in order.
+     */
+    private static String fieldsETag(List<String> projection, List<Tuple> rows) {
+        StringBuilder versions = new StringBuilder(rows.size() * 16).append(projection).append(':');
+        for (Tuple row : rows) {
+            versions.append(row.get("id")).append('-').append(row.get("version")).append(',');
+        }
+        return digestETag(versions);
+    }
+
+    private static String digestETag(CharSequence versions) {
+        return "\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Check the {@code If-Match} header of a conditional update against the current state of the book.
+     * Weak ETags never match, as required by RFC 9110 for {@code If-Match}.
+     */
+    private static void checkIfMatch(String ifMatch, Book book) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return;
+        }
+        String current = eTag(book);
+        for (String candidate : ifMatch.split(",")) {
+            if (current.equals(candidate.trim())) {
+                return;
+            }
+        }
+        throw new PreconditionFailedAlertException("Book was modified concurrently", ENTITY_NAME, "preconditionfailed");
+    }
 }
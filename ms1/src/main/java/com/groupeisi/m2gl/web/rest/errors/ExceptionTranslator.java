@@ -2,6 +2,7 @@ package com.groupeisi.m2gl.web.rest.errors;
 
 import static org.springframework.core.annotation.AnnotatedElementUtils.findMergedAnnotation;
 
+import com.groupeisi.m2gl.service.IdempotencyService;
 import jakarta.servlet.http.HttpServletRequest;
 import java.net.URI;
 import java.util.Arrays;
@@ -208,6 +209,8 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
         if (err instanceof AccessDeniedException) return HttpStatus.FORBIDDEN;
         if (err instanceof ConcurrencyFailureException) return HttpStatus.CONFLICT;
         if (err instanceof BadCredentialsException) return HttpStatus.UNAUTHORIZED;
+        if (err instanceof IdempotencyService.KeyInUseException) return HttpStatus.CONFLICT;
+        if (err instanceof IdempotencyService.KeyReusedException) return HttpStatus.UNPROCESSABLE_ENTITY;
         return null;
     }
 
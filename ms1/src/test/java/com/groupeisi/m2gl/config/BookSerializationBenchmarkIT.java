@@ -0,0 +1,102 @@
+package com.groupeisi.m2gl.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.domain.Book;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Integration benchmark of the serialization of a list of books in each format served by the REST API, with the
+ * object mappers configured by {@link JacksonConfiguration}.
+ */
+@IntegrationTest
+class BookSerializationBenchmarkIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookSerializationBenchmarkIT.class);
+
+    private static final int BOOK_COUNT = 500;
+
+    private static final int WARMUP = 20;
+
+    private static final int ITERATIONS = 50;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Test
+    void binaryFormatsAreSmallerThanJson() throws Exception {
+        List<Book> books = new ArrayList<>(BOOK_COUNT);
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            books.add(
+                new Book().title("Serialization " + i).prix(i + 0.99).author("Serialization").date_pub(LocalDate.ofEpochDay(i))
+            );
+            books.get(i).setId(1_000_000L + i);
+            books.get(i).setVersion(0L);
+        }
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", om);
+        mappers.put("smile", smileConverter.getObjectMapper());
+        mappers.put("cbor", cborConverter.getObjectMapper());
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> format : mappers.entrySet()) {
+            Measure measure = measure(format.getValue(), books);
+            sizes.put(format.getKey(), measure.bytes);
+            LOG.info(
+                "{} books as {}: {} bytes per book, {} lists written and {} lists read per second",
+                BOOK_COUNT,
+                format.getKey(),
+                measure.bytes / BOOK_COUNT,
+                measure.writesPerSecond,
+                measure.readsPerSecond
+            );
+        }
+
+        assertThat(sizes.get("smile")).isLessThan(sizes.get("json"));
+        assertThat(sizes.get("cbor")).isLessThan(sizes.get("json"));
+    }
+
+    private Measure measure(ObjectMapper mapper, List<Book> books) throws Exception {
+        JavaType type = mapper.getTypeFactory().constructCollectionType(List.class, Book.class);
+        byte[] payload = mapper.writeValueAsBytes(books);
+        List<Book> read = mapper.readValue(payload, type);
+        assertThat(read).hasSize(BOOK_COUNT);
+        assertThat(read.get(BOOK_COUNT - 1).getDate_pub()).isEqualTo(books.get(BOOK_COUNT - 1).getDate_pub());
+
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(books), type);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(books);
+        }
+        long writeNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.readValue(payload, type);
+        }
+        long readNanos = System.nanoTime() - start;
+        return new Measure(payload.length, ITERATIONS * 1_000_000_000L / writeNanos, ITERATIONS * 1_000_000_000L / readNanos);
+    }
+
+    private record Measure(int bytes, long writesPerSecond, long readsPerSecond) {}
+}
@@ -0,0 +1,97 @@
+package com.groupeisi.m2gl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.domain.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.Optional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests of the Book second level cache: reads by id are served from the cache and every write through
+ * Hibernate keeps it consistent.
+ */
+@IntegrationTest
+class BookCacheIT {
+
+    private static final String BOOK_REGION = Book.class.getName();
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    private Long bookId;
+
+    @BeforeEach
+    void initTest() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        bookId = transactionTemplate.execute(status ->
+            bookRepository.save(new Book().title("Cached").prix(1D).author("Cache").date_pub(LocalDate.ofEpochDay(0L))).getId()
+        );
+        entityManagerFactory.getCache().evict(Book.class);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        transactionTemplate.executeWithoutResult(status -> bookRepository.findById(bookId).ifPresent(bookRepository::delete));
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void findByIdIsServedFromTheCache() {
+        double hitsBefore = cacheGets("hit");
+
+        transactionTemplate.executeWithoutResult(status -> bookRepository.findById(bookId));
+        transactionTemplate.executeWithoutResult(status -> bookRepository.findById(bookId));
+
+        assertThat(statistics.getDomainDataRegionStatistics(BOOK_REGION).getMissCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(BOOK_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        assertThat(cacheGets("hit")).isGreaterThan(hitsBefore);
+    }
+
+    @Test
+    void updateRefreshesTheCachedBook() {
+        transactionTemplate.executeWithoutResult(status -> bookRepository.findById(bookId));
+
+        transactionTemplate.executeWithoutResult(status -> bookRepository.findById(bookId).orElseThrow().setTitle("Updated"));
+
+        Book book = transactionTemplate.execute(status -> bookRepository.findById(bookId).orElseThrow());
+        assertThat(book.getTitle()).isEqualTo("Updated");
+    }
+
+    @Test
+    void deleteEvictsTheCachedBook() {
+        transactionTemplate.executeWithoutResult(status -> bookRepository.findById(bookId));
+
+        transactionTemplate.executeWithoutResult(status -> bookRepository.deleteById(bookId));
+
+        Optional<Book> book = transactionTemplate.execute(status -> bookRepository.findById(bookId));
+        assertThat(book).isEmpty();
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", BOOK_REGION).tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,59 @@
+package com.groupeisi.m2gl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.groupeisi.m2gl.IntegrationTest;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests checking with {@code EXPLAIN} that the book filters of {@code GET /api/books} are served by an index.
+ * <p>
+ * The statements are the ones generated for the filters of {@link com.groupeisi.m2gl.service.criteria.BookCriteria}.
+ * The plans are read in the H2 format, so the tests are skipped on other databases.
+ */
+@IntegrationTest
+@Transactional
+class BookIndexIT {
+
+    @Autowired
+    private EntityManager em;
+
+    @BeforeEach
+    void assumeH2() {
+        String database = em.unwrap(Session.class).doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+        assumeTrue("H2".equals(database), "EXPLAIN plans are checked on H2 only");
+    }
+
+    @Test
+    void authorFiltersUseTheAuthorIndex() {
+        assertThat(explain("author = 'Hugo'")).contains("IDX_BOOK_AUTHOR");
+        assertThat(explain("author in ('Hugo', 'Zola')")).contains("IDX_BOOK_AUTHOR");
+    }
+
+    @Test
+    void prixFiltersUseThePrixIndex() {
+        assertThat(explain("prix = 10")).contains("IDX_BOOK_PRIX");
+        assertThat(explain("prix > 10")).contains("IDX_BOOK_PRIX");
+        assertThat(explain("prix >= 10 and prix <= 20")).contains("IDX_BOOK_PRIX");
+    }
+
+    @Test
+    void datePubFiltersUseTheDatePubIndex() {
+        assertThat(explain("date_pub = DATE '2020-01-01'")).contains("IDX_BOOK_DATE_PUB");
+        assertThat(explain("date_pub < DATE '2020-01-01'")).contains("IDX_BOOK_DATE_PUB");
+        assertThat(explain("date_pub >= DATE '2020-01-01' and date_pub <= DATE '2020-12-31'")).contains("IDX_BOOK_DATE_PUB");
+    }
+
+    private String explain(String condition) {
+        String plan = String.valueOf(
+            em.createNativeQuery("explain select id, title, prix, author, date_pub, version from book where " + condition).getSingleResult()
+        );
+        return plan.toUpperCase();
+    }
+}
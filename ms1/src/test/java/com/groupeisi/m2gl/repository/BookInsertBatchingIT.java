@@ -0,0 +1,84 @@
+package com.groupeisi.m2gl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.domain.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration benchmark of bulk Book inserts, run against H2 by default and against MySQL with the {@code prod} profile.
+ * <p>
+ * With ids allocated from {@code book_seq}, Hibernate groups the inserts in JDBC batches of {@code hibernate.jdbc.batch_size}
+ * rows instead of one round-trip per row, which is what an {@code IDENTITY} id forces.
+ */
+@IntegrationTest
+class BookInsertBatchingIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookInsertBatchingIT.class);
+
+    private static final int BOOK_COUNT = 1000;
+
+    private static final int BATCH_SIZE = 25;
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @Transactional
+    void insertsAreSentInJdbcBatches() {
+        List<Book> books = new ArrayList<>(BOOK_COUNT);
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            books.add(new Book().title("Batch " + i).prix((double) i).author("Batch").date_pub(LocalDate.ofEpochDay(i)));
+        }
+
+        long start = System.nanoTime();
+        bookRepository.saveAll(books);
+        em.flush();
+        long elapsed = System.nanoTime() - start;
+
+        LOG.info("Inserted {} books in {} ms ({} inserts/s)", BOOK_COUNT, elapsed / 1_000_000, (long) (BOOK_COUNT / (elapsed / 1e9)));
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(BOOK_COUNT);
+        // One statement per batch of inserts, plus one sequence call per block of ids: far from one statement per row
+        long expectedStatements = BOOK_COUNT / BATCH_SIZE + BOOK_COUNT / ALLOCATION_SIZE + 1;
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(expectedStatements);
+        // Ids are allocated by contiguous blocks
+        assertThat(books.get(ALLOCATION_SIZE - 1).getId()).isEqualTo(books.get(0).getId() + ALLOCATION_SIZE - 1);
+    }
+}
@@ -0,0 +1,134 @@
+package com.groupeisi.m2gl.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.domain.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Tuple;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration benchmark of a page of books read as entities and as a projection of the columns shown by the mobile
+ * clients, run against H2 by default and against MySQL with the {@code prod} profile.
+ */
+@IntegrationTest
+class BookProjectionBenchmarkIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookProjectionBenchmarkIT.class);
+
+    private static final int BOOK_COUNT = 1000;
+
+    private static final int PAGE_SIZE = 500;
+
+    private static final List<String> FIELDS = List.of("id", "title", "prix");
+
+    private static final Sort ID_ORDER = Sort.by("id");
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper om;
+
+    private Statistics statistics;
+
+    private Long after;
+
+    @BeforeEach
+    void insertBooks() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        List<Book> books = new ArrayList<>(BOOK_COUNT);
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            books.add(new Book().title("Projection " + i).prix((double) i).author("Projection").date_pub(LocalDate.ofEpochDay(i)));
+        }
+        bookRepository.saveAll(books);
+        em.flush();
+        em.clear();
+        after = books.get(0).getId() - 1;
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @Transactional
+    void projectionLoadsNoEntityAndShrinksThePayload() throws Exception {
+        statistics.clear();
+        Measure entities = measure(() -> bookRepository.findBy(afterSpecification(), query -> query.sortBy(ID_ORDER).limit(PAGE_SIZE).all()));
+        long loadedEntities = statistics.getEntityLoadCount();
+        int managedEntities = em.unwrap(Session.class).getStatistics().getEntityCount();
+        em.clear();
+
+        statistics.clear();
+        Measure projection = measure(() -> {
+            List<Map<String, Object>> rows = new ArrayList<>(PAGE_SIZE);
+            for (Tuple tuple : bookRepository.findProjected(FIELDS, afterSpecification(), ID_ORDER, 0, PAGE_SIZE)) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                FIELDS.forEach(field -> row.put(field, tuple.get(field)));
+                rows.add(row);
+            }
+            return rows;
+        });
+
+        LOG.info(
+            "Page of {} books: entities {} KB allocated / {} bytes of JSON, projection {} KB allocated / {} bytes of JSON",
+            PAGE_SIZE,
+            entities.allocatedBytes / 1024,
+            entities.payloadBytes,
+            projection.allocatedBytes / 1024,
+            projection.payloadBytes
+        );
+
+        assertThat(loadedEntities).isEqualTo(PAGE_SIZE);
+        assertThat(managedEntities).isEqualTo(PAGE_SIZE);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        assertThat(projection.payloadBytes).isLessThan(entities.payloadBytes);
+    }
+
+    private Specification<Book> afterSpecification() {
+        return (root, query, cb) -> cb.greaterThan(root.<Long>get("id"), after);
+    }
+
+    private Measure measure(Supplier<List<?>> page) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        List<?> rows = page.get();
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertThat(rows).hasSize(PAGE_SIZE);
+        return new Measure(allocated, om.writeValueAsBytes(rows).length);
+    }
+
+    private record Measure(long allocatedBytes, int payloadBytes) {}
+}
@@ -0,0 +1,131 @@
+package com.groupeisi.m2gl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.domain.BookChangedEvent;
+import com.groupeisi.m2gl.service.dto.BookChangeDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+/**
+ * Unit tests for {@link BookChangePublisher}.
+ */
+class BookChangePublisherTest {
+
+    private static final int MAX_PENDING_EVENTS = 3;
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
+
+    private BookChangePublisher bookChangePublisher;
+
+    @BeforeEach
+    void init() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getBookChanges().setMaxPendingEvents(MAX_PENDING_EVENTS);
+        meterRegistry = new SimpleMeterRegistry();
+        bookChangePublisher = new BookChangePublisher(applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void sendMatchingChanges() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        bookChangePublisher.subscribe(change -> "Hugo".equals(change.getBook().getAuthor())).subscribe(subscriber);
+
+        publish(1L, "Hugo");
+        publish(2L, "Zola");
+        publish(3L, "Hugo");
+
+        assertThat(subscriber.received).extracting(BookChangeDTO::getId).containsExactly(1L, 3L);
+        assertThat(subscriber.error).isNull();
+    }
+
+    @Test
+    void stopPublishingOnCancel() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        bookChangePublisher.subscribe(change -> true).subscribe(subscriber);
+
+        publish(1L, "Hugo");
+        subscriber.dispose();
+        publish(2L, "Hugo");
+
+        assertThat(subscriber.received).extracting(BookChangeDTO::getId).containsExactly(1L);
+    }
+
+    @Test
+    void dropChangesOfSlowSubscriber() {
+        applicationProperties.getBookChanges().setSubscriptionOverflow(ApplicationProperties.BookChanges.Overflow.DROP);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        bookChangePublisher.subscribe(change -> true).subscribe(subscriber);
+
+        for (long id = 1; id <= MAX_PENDING_EVENTS + 2; id++) {
+            publish(id, "Hugo");
+        }
+        subscriber.request(Long.MAX_VALUE);
+        publish(10L, "Hugo");
+
+        assertThat(subscriber.received).extracting(BookChangeDTO::getId).containsExactly(1L, 2L, 3L, 10L);
+        assertThat(subscriber.error).isNull();
+        assertThat(meterRegistry.counter("book.changes.subscriptions.overflow", "result", "dropped").count()).isEqualTo(2);
+    }
+
+    @Test
+    void disconnectSlowSubscriber() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        bookChangePublisher.subscribe(change -> true).subscribe(subscriber);
+
+        for (long id = 1; id <= MAX_PENDING_EVENTS + 1; id++) {
+            publish(id, "Hugo");
+        }
+        publish(10L, "Hugo");
+        subscriber.request(Long.MAX_VALUE);
+
+        // The pending changes are sent before the error
+        assertThat(subscriber.received).extracting(BookChangeDTO::getId).containsExactly(1L, 2L, 3L);
+        assertThat(subscriber.error).isInstanceOf(BookChangePublisher.SlowSubscriberException.class);
+        assertThat(meterRegistry.counter("book.changes.subscriptions.overflow", "result", "disconnected").count()).isEqualTo(1);
+    }
+
+    private void publish(Long id, String author) {
+        bookChangePublisher.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED, new Book().id(id).author(author)));
+    }
+
+    private static final class RecordingSubscriber extends BaseSubscriber<BookChangeDTO> {
+
+        private final long initialRequest;
+
+        private final List<BookChangeDTO> received = new ArrayList<>();
+
+        private Throwable error;
+
+        private RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            if (initialRequest > 0) {
+                request(initialRequest);
+            }
+        }
+
+        @Override
+        protected void hookOnNext(BookChangeDTO change) {
+            received.add(change);
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error = throwable;
+        }
+    }
+}
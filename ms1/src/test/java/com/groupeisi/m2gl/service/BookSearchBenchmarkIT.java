@@ -0,0 +1,95 @@
+package com.groupeisi.m2gl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration benchmark of the book title search, comparing the trigram index of {@link BookSearchService} with the
+ * {@code LIKE '%x%'} query of {@link BookRepository}, run against H2 by default and against MySQL with the {@code prod}
+ * profile.
+ */
+@IntegrationTest
+class BookSearchBenchmarkIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookSearchBenchmarkIT.class);
+
+    private static final int BOOK_COUNT = 2000;
+
+    private static final int WARMUP = 10;
+
+    private static final int ITERATIONS = 50;
+
+    private static final String QUERY = "benchmark 1242";
+
+    private static final Set<BookSearchIndex.Field> TITLE = EnumSet.of(BookSearchIndex.Field.TITLE);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void insertBooks() {
+        List<Book> books = new ArrayList<>(BOOK_COUNT);
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            books.add(new Book().title("Benchmark " + i).prix((double) i).author("Benchmark").date_pub(LocalDate.ofEpochDay(i)));
+        }
+        transactionTemplate.executeWithoutResult(status -> bookRepository.saveAll(books));
+    }
+
+    @AfterEach
+    void deleteBooks() {
+        transactionTemplate.executeWithoutResult(status ->
+            bookRepository.deleteAll(bookRepository.findByAuthorContainingIgnoreCase("Benchmark"))
+        );
+    }
+
+    @Test
+    void indexSearchMatchesAndOutrunsLikeQuery() {
+        List<Book> like = bookRepository.findByTitleContainingIgnoreCase(QUERY);
+        List<Book> indexed = bookSearchService.search(QUERY, TITLE, BOOK_COUNT);
+
+        // Same substring matches as LIKE, ranked first, followed by close spellings
+        assertThat(indexed.subList(0, like.size())).containsExactlyInAnyOrderElementsOf(like);
+        assertThat(indexed.get(0).getTitle()).isEqualToIgnoringCase(QUERY);
+
+        long likeNanos = time(() -> bookRepository.findByTitleContainingIgnoreCase(QUERY));
+        long indexNanos = time(() -> bookSearchService.search(QUERY, TITLE, 20));
+        LOG.info(
+            "Title search over {} books: LIKE {} µs/query, trigram index {} µs/query",
+            BOOK_COUNT,
+            likeNanos / ITERATIONS / 1000,
+            indexNanos / ITERATIONS / 1000
+        );
+    }
+
+    private long time(Runnable search) {
+        for (int i = 0; i < WARMUP; i++) {
+            search.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.run();
+        }
+        return System.nanoTime() - start;
+    }
+}
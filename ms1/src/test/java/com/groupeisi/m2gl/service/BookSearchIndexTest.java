@@ -0,0 +1,89 @@
+package com.groupeisi.m2gl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumSet;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BookSearchIndex}.
+ */
+class BookSearchIndexTest {
+
+    private static final Set<BookSearchIndex.Field> TITLE = EnumSet.of(BookSearchIndex.Field.TITLE);
+
+    private static final Set<BookSearchIndex.Field> ALL = EnumSet.allOf(BookSearchIndex.Field.class);
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void init() {
+        index = new BookSearchIndex();
+        index.put(1L, 0L, "Les Misérables", "Victor Hugo");
+        index.put(2L, 0L, "Misérables", "Anonyme");
+        index.put(3L, 0L, "Le Petit Prince", "Antoine de Saint-Exupéry");
+        index.put(4L, 0L, "Notre-Dame de Paris", "Victor Hugo");
+        index.put(5L, 0L, "Les Miserables illustrés", "Victor Hugo");
+    }
+
+    @Test
+    void searchRanksExactThenPrefixThenWordMatches() {
+        assertThat(index.search("miserables", TITLE, 10)).containsExactly(2L, 1L, 5L);
+    }
+
+    @Test
+    void searchIgnoresCaseAndAccents() {
+        assertThat(index.search("SAINT-EXUPERY", ALL, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void searchToleratesTypos() {
+        assertThat(index.search("petit prinse", TITLE, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void searchMatchesQueriesShorterThanATrigram() {
+        assertThat(index.search("pa", TITLE, 10)).containsExactly(4L);
+    }
+
+    @Test
+    void searchMatchesShortQueriesEndingAValue() {
+        assertThat(index.search("go", ALL, 10)).containsExactly(1L, 4L, 5L);
+    }
+
+    @Test
+    void searchIgnoresSingleCharacters() {
+        assertThat(index.search("e", ALL, 10)).isEmpty();
+    }
+
+    @Test
+    void searchIsLimited() {
+        assertThat(index.search("hugo", ALL, 2)).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void searchFollowsUpdatesAndDeletes() {
+        index.put(3L, 1L, "Vol de nuit", "Antoine de Saint-Exupéry");
+        index.remove(4L);
+
+        assertThat(index.search("prince", TITLE, 10)).isEmpty();
+        assertThat(index.search("vol de nuit", TITLE, 10)).containsExactly(3L);
+        assertThat(index.search("hugo", ALL, 10)).containsExactly(1L, 5L);
+    }
+
+    @Test
+    void staleVersionsAndDeletedRowsAreNotLoaded() {
+        index.startLoading();
+        index.put(3L, 1L, "Vol de nuit", "Antoine de Saint-Exupéry");
+        index.remove(4L);
+        index.load(3L, 0L, "Le Petit Prince", "Antoine de Saint-Exupéry");
+        index.load(4L, 0L, "Notre-Dame de Paris", "Victor Hugo");
+        index.finishLoading();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("prince", TITLE, 10)).isEmpty();
+        assertThat(index.search("notre-dame", TITLE, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,132 @@
+package com.groupeisi.m2gl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.groupeisi.m2gl.service.dto.BookStatisticsDTO;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BookStatisticsAggregate}.
+ */
+class BookStatisticsAggregateTest {
+
+    private BookStatisticsAggregate aggregate;
+
+    @BeforeEach
+    void init() {
+        aggregate = new BookStatisticsAggregate();
+        aggregate.put(1L, 0L, "Victor Hugo", 10.0, LocalDate.of(1862, 4, 3));
+        aggregate.put(2L, 0L, "Victor Hugo", 20.0, LocalDate.of(1831, 3, 16));
+        aggregate.put(3L, 0L, "Saint-Exupéry", 30.0, LocalDate.of(1943, 4, 6));
+        aggregate.put(4L, 0L, null, null, null);
+    }
+
+    @Test
+    void statisticsAggregateEveryBook() {
+        BookStatisticsDTO statistics = aggregate.getStatistics();
+
+        assertThat(statistics.getCount()).isEqualTo(4);
+        assertThat(statistics.getMinPrix()).isEqualTo(10.0);
+        assertThat(statistics.getMaxPrix()).isEqualTo(30.0);
+        assertThat(statistics.getAveragePrix()).isEqualTo(20.0);
+        assertThat(statistics.getAuthors()).containsOnlyKeys("Victor Hugo", "Saint-Exupéry");
+        assertThat(statistics.getAuthors().keySet()).first().isEqualTo("Victor Hugo");
+        assertThat(statistics.getAuthors().get("Victor Hugo").getCount()).isEqualTo(2);
+        assertThat(statistics.getAuthors().get("Victor Hugo").getAveragePrix()).isEqualTo(15.0);
+        assertThat(statistics.getCountByYear()).containsExactly(
+            entry(1831, 1L),
+            entry(1862, 1L),
+            entry(1943, 1L)
+        );
+    }
+
+    @Test
+    void updateReplacesThePreviousState() {
+        aggregate.put(1L, 1L, "Saint-Exupéry", 40.0, LocalDate.of(1943, 1, 1));
+
+        BookStatisticsDTO statistics = aggregate.getStatistics();
+        assertThat(statistics.getCount()).isEqualTo(4);
+        assertThat(statistics.getMinPrix()).isEqualTo(20.0);
+        assertThat(statistics.getMaxPrix()).isEqualTo(40.0);
+        assertThat(statistics.getAveragePrix()).isEqualTo(30.0);
+        assertThat(statistics.getAuthors().get("Victor Hugo").getCount()).isEqualTo(1);
+        assertThat(statistics.getAuthors().get("Saint-Exupéry").getCount()).isEqualTo(2);
+        assertThat(statistics.getAuthors().keySet()).first().isEqualTo("Saint-Exupéry");
+        assertThat(statistics.getCountByYear()).containsOnlyKeys(1831, 1943).containsEntry(1943, 2L);
+    }
+
+    @Test
+    void removeRestoresMinAndDropsEmptyGroups() {
+        aggregate.remove(1L);
+        aggregate.remove(3L);
+
+        BookStatisticsDTO statistics = aggregate.getStatistics();
+        assertThat(statistics.getCount()).isEqualTo(2);
+        assertThat(statistics.getMinPrix()).isEqualTo(20.0);
+        assertThat(statistics.getMaxPrix()).isEqualTo(20.0);
+        assertThat(statistics.getAuthors()).containsOnlyKeys("Victor Hugo");
+        assertThat(statistics.getCountByYear()).containsOnlyKeys(1831);
+    }
+
+    @Test
+    void duplicatePricesAreCountedSeparately() {
+        aggregate.put(5L, 0L, "Anonyme", 10.0, null);
+        aggregate.remove(1L);
+
+        assertThat(aggregate.getStatistics().getMinPrix()).isEqualTo(10.0);
+    }
+
+    @Test
+    void staleVersionIsIgnored() {
+        aggregate.put(1L, 2L, "Victor Hugo", 50.0, LocalDate.of(1862, 4, 3));
+        String revision = aggregate.getRevision();
+
+        aggregate.put(1L, 1L, "Victor Hugo", 5.0, LocalDate.of(1862, 4, 3));
+
+        assertThat(aggregate.getStatistics().getMinPrix()).isEqualTo(20.0);
+        assertThat(aggregate.getRevision()).isEqualTo(revision);
+    }
+
+    @Test
+    void staleVersionsAndDeletedRowsAreNotLoaded() {
+        aggregate.startLoading();
+        aggregate.put(1L, 1L, "Victor Hugo", 50.0, LocalDate.of(1862, 4, 3));
+        aggregate.remove(3L);
+        aggregate.load(1L, 0L, "Victor Hugo", 10.0, LocalDate.of(1862, 4, 3));
+        aggregate.load(3L, 0L, "Saint-Exupéry", 30.0, LocalDate.of(1943, 4, 6));
+        aggregate.load(5L, 0L, "Anonyme", 5.0, null);
+        aggregate.finishLoading();
+
+        BookStatisticsDTO statistics = aggregate.getStatistics();
+        assertThat(statistics.getCount()).isEqualTo(4);
+        assertThat(statistics.getMinPrix()).isEqualTo(5.0);
+        assertThat(statistics.getMaxPrix()).isEqualTo(50.0);
+        assertThat(statistics.getAuthors()).containsOnlyKeys("Victor Hugo", "Anonyme");
+    }
+
+    @Test
+    void statisticsAreSharedUntilTheNextWrite() {
+        BookStatisticsDTO statistics = aggregate.getStatistics();
+        String revision = aggregate.getRevision();
+
+        assertThat(aggregate.getStatistics()).isSameAs(statistics);
+
+        aggregate.remove(4L);
+
+        assertThat(aggregate.getStatistics()).isNotSameAs(statistics);
+        assertThat(aggregate.getRevision()).isNotEqualTo(revision);
+    }
+
+    @Test
+    void emptyAggregateHasNoPrices() {
+        BookStatisticsDTO statistics = new BookStatisticsAggregate().getStatistics();
+
+        assertThat(statistics.getCount()).isZero();
+        assertThat(statistics.getMinPrix()).isNull();
+        assertThat(statistics.getAveragePrix()).isNull();
+        assertThat(statistics.getAuthors()).isEmpty();
+    }
+}
@@ -0,0 +1,148 @@
+package com.groupeisi.m2gl.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link IdempotencyService}.
+ */
+class IdempotencyServiceTest {
+
+    private static final IdempotencyService.IdempotentCall<String, RuntimeException> PAYLOAD = () -> "payload";
+
+    private MeterRegistry meterRegistry;
+
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getIdempotency().setWaitTimeout(Duration.ofSeconds(1));
+        idempotencyService = new IdempotencyService(applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void replayFirstResult() {
+        assertThat(idempotencyService.execute("create", "key", PAYLOAD, calls::incrementAndGet)).isEqualTo(1);
+        assertThat(idempotencyService.execute("create", "key", PAYLOAD, calls::incrementAndGet)).isEqualTo(1);
+
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.counter("idempotency.requests", "operation", "create", "result", "replayed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void scopeKeysByOperation() {
+        idempotencyService.execute("create", "key", PAYLOAD, calls::incrementAndGet);
+        idempotencyService.execute("import", "key", PAYLOAD, calls::incrementAndGet);
+        idempotencyService.execute("create", null, PAYLOAD, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void releaseKeyOnFailure() {
+        assertThatThrownBy(() ->
+            idempotencyService.execute("import", "key", PAYLOAD, () -> {
+                throw new IOException("unreadable");
+            })
+        ).isInstanceOf(IOException.class);
+
+        assertThat(idempotencyService.execute("import", "key", PAYLOAD, calls::incrementAndGet)).isEqualTo(1);
+    }
+
+    @Test
+    void waitForCallInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() ->
+            idempotencyService.execute("create", "key", PAYLOAD, () -> {
+                started.countDown();
+                release.join();
+                return calls.incrementAndGet();
+            })
+        );
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Integer> retry = CompletableFuture.supplyAsync(() ->
+            idempotencyService.execute("create", "key", PAYLOAD, calls::incrementAndGet)
+        );
+        assertThat(retry).isNotDone();
+        release.complete(null);
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(retry.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void rejectRetryStillWaitingAfterTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() ->
+            idempotencyService.execute("create", "key", PAYLOAD, () -> {
+                started.countDown();
+                release.join();
+                return calls.incrementAndGet();
+            })
+        );
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> idempotencyService.execute("create", "key", PAYLOAD, calls::incrementAndGet)).isInstanceOf(
+                IdempotencyService.KeyInUseException.class
+            );
+        } finally {
+            release.complete(null);
+        }
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(meterRegistry.counter("idempotency.requests", "operation", "create", "result", "in-use").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectKeyReusedWithAnotherPayload() {
+        idempotencyService.execute("create", "key", PAYLOAD, calls::incrementAndGet);
+
+        assertThatThrownBy(() -> idempotencyService.execute("create", "key", () -> "other payload", calls::incrementAndGet)).isInstanceOf(
+            IdempotencyService.KeyReusedException.class
+        );
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.counter("idempotency.requests", "operation", "create", "result", "mismatched").count()).isEqualTo(1);
+    }
+
+    @Test
+    void hashStreamedBodyOnceRead() throws Exception {
+        byte[] body = "{\"title\":\"a\"}\n{\"title\":\"b\"}\n".getBytes(StandardCharsets.UTF_8);
+        IdempotencyService.HashingInputStream partlyRead = new IdempotencyService.HashingInputStream(new ByteArrayInputStream(body));
+        assertThat(partlyRead.readNBytes(5)).hasSize(5);
+
+        assertThat(partlyRead.hash())
+            .isEqualTo(new IdempotencyService.HashingInputStream(new ByteArrayInputStream(body)).hash())
+            .isEqualTo(IdempotencyService.hash(new String(body, StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void validateKeys() {
+        assertThat(IdempotencyService.isValidKey(null)).isTrue();
+        assertThat(IdempotencyService.isValidKey("a1b2")).isTrue();
+        assertThat(IdempotencyService.isValidKey(" ")).isFalse();
+        assertThat(IdempotencyService.isValidKey("k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1))).isFalse();
+    }
+}
@@ -0,0 +1,218 @@
+package com.groupeisi.m2gl.web.graphql;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Integration tests for the incremental delivery of {@code @defer} and {@code @stream} over {@code multipart/mixed}
+ * responses. Books are committed before each test and deleted after it.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class GraphQlIncrementalDeliveryIT {
+
+    private static final String GRAPHQL_URL = "/graphql";
+
+    private static final MediaType MULTIPART_MIXED = MediaType.parseMediaType("multipart/mixed;deferSpec=20220824");
+
+    private static final String AUTHOR = "Incrémental";
+
+    // More than a part of application.graphql.stream-batch-size books
+    private static final int BOOK_COUNT = 120;
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MockMvc restGraphQlMockMvc;
+
+    private final List<Book> books = new ArrayList<>();
+
+    @BeforeEach
+    void initTest() {
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            books.add(bookRepository.save(new Book().title("Partie " + i).prix(1D).author(AUTHOR).date_pub(LocalDate.ofEpochDay(i))));
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteAllById(books.stream().map(Book::getId).toList());
+        books.clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamBooksAfterTheInitialOnes() throws Exception {
+        List<Map<String, Object>> parts = executeMultipart(
+            "{ books @stream(initialCount: 2, label: \"suite\") { id titre: title __typename } }",
+            MULTIPART_MIXED
+        );
+
+        List<Object> all = new ArrayList<>((List<Object>) ((Map<String, Object>) parts.get(0).get("data")).get("books"));
+        assertThat(all).hasSize(2);
+        assertThat(parts.get(0)).containsEntry("hasNext", true);
+        for (Map<String, Object> part : parts.subList(1, parts.size() - 1)) {
+            assertThat(part).containsEntry("hasNext", true);
+            Map<String, Object> payload = ((List<Map<String, Object>>) part.get("incremental")).get(0);
+            assertThat(payload).containsEntry("label", "suite").containsEntry("path", List.of("books", all.size()));
+            all.addAll((List<Object>) payload.get("items"));
+        }
+        assertThat(parts.get(parts.size() - 1)).isEqualTo(Map.of("hasNext", false));
+
+        // Other tests may have left books: only the ones of this test are checked, in order
+        List<Map<String, Object>> streamed = all
+            .stream()
+            .map(item -> (Map<String, Object>) item)
+            .filter(item -> item.get("titre") instanceof String title && title.startsWith("Partie "))
+            .toList();
+        assertThat(streamed).hasSize(BOOK_COUNT);
+        assertThat(streamed.get(0)).isEqualTo(Map.of("id", books.get(0).getId().toString(), "titre", "Partie 0", "__typename", "Book"));
+        assertThat(streamed)
+            .extracting(item -> item.get("id"))
+            .containsExactlyElementsOf(books.stream().map(book -> book.getId().toString()).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamSearchResultsByRelevance() throws Exception {
+        List<Map<String, Object>> parts = executeMultipart(
+            "{ booksByAuthor(author: \"" + AUTHOR + "\") @stream(initialCount: 1) { id datePub } }",
+            MULTIPART_MIXED
+        );
+
+        List<Object> all = new ArrayList<>((List<Object>) ((Map<String, Object>) parts.get(0).get("data")).get("booksByAuthor"));
+        assertThat(all).hasSize(1);
+        // One part for the first application.graphql.stream-batch-size books, one for the others
+        assertThat(parts).hasSize(4);
+        for (Map<String, Object> part : parts.subList(1, parts.size() - 1)) {
+            Map<String, Object> payload = ((List<Map<String, Object>>) part.get("incremental")).get(0);
+            assertThat(payload).containsEntry("path", List.of("booksByAuthor", all.size()));
+            all.addAll((List<Object>) payload.get("items"));
+        }
+        assertThat(all).hasSize(BOOK_COUNT).allSatisfy(item -> assertThat((Map<String, Object>) item).containsKeys("id", "datePub"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deferFragment() throws Exception {
+        Book book = books.get(3);
+        List<Map<String, Object>> parts = executeMultipart(
+            "{ book(id: \"" + book.getId() + "\") { id ... @defer(label: \"details\") { title author } } }",
+            MULTIPART_MIXED
+        );
+
+        assertThat(parts.get(0))
+            .containsEntry("data", Map.of("book", Map.of("id", book.getId().toString())))
+            .containsEntry("hasNext", true);
+        Map<String, Object> deferred = ((List<Map<String, Object>>) parts.get(1).get("incremental")).get(0);
+        assertThat(deferred)
+            .containsEntry("label", "details")
+            .containsEntry("path", List.of("book"))
+            .containsEntry("data", Map.of("title", "Partie 3", "author", AUTHOR));
+        assertThat(parts.get(parts.size() - 1)).isEqualTo(Map.of("hasNext", false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamInsideDeferFragment() throws Exception {
+        List<Map<String, Object>> parts = executeMultipart(
+            "{ ... @defer(label: \"recherche\") { booksByAuthor(author: \"" + AUTHOR + "\") @stream(initialCount: 1) { id } } }",
+            MULTIPART_MIXED
+        );
+
+        assertThat(parts.get(0)).containsEntry("data", Map.of()).containsEntry("hasNext", true);
+        Map<String, Object> deferred = ((List<Map<String, Object>>) parts.get(1).get("incremental")).get(0);
+        assertThat(deferred).containsEntry("label", "recherche").containsEntry("path", List.of());
+        List<Object> all = new ArrayList<>((List<Object>) ((Map<String, Object>) deferred.get("data")).get("booksByAuthor"));
+        assertThat(all).hasSize(1);
+        for (Map<String, Object> part : parts.subList(2, parts.size() - 1)) {
+            Map<String, Object> payload = ((List<Map<String, Object>>) part.get("incremental")).get(0);
+            assertThat(payload).containsEntry("path", List.of("booksByAuthor", all.size()));
+            all.addAll((List<Object>) payload.get("items"));
+        }
+        assertThat(all).hasSize(BOOK_COUNT);
+        assertThat(parts.get(parts.size() - 1)).isEqualTo(Map.of("hasNext", false));
+    }
+
+    @Test
+    void ignoreDirectivesWithoutMultipart() throws Exception {
+        Book book = books.get(0);
+        executeGraphQl(
+            "{ booksByAuthor(author: \"" + AUTHOR + "\") @stream(initialCount: 1) { id } book(id: \"" + book.getId() + "\") {" +
+            " ... @defer { title } } }",
+            MediaType.APPLICATION_JSON
+        )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors").doesNotExist())
+            .andExpect(jsonPath("$.data.booksByAuthor.length()").value(BOOK_COUNT))
+            .andExpect(jsonPath("$.data.book.title").value("Partie 0"))
+            .andExpect(jsonPath("$.hasNext").doesNotExist());
+    }
+
+    @Test
+    void answerWithJsonWithoutIncrementalPart() throws Exception {
+        executeGraphQl("{ book(id: \"" + books.get(0).getId() + "\") { title } }", MULTIPART_MIXED)
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.data.book.title").value("Partie 0"));
+    }
+
+    /**
+     * Parts of a {@code multipart/mixed} response, each a JSON object.
+     */
+    private List<Map<String, Object>> executeMultipart(String query, MediaType accept) throws Exception {
+        MvcResult result = executeGraphQl(query, accept)
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.MULTIPART_MIXED))
+            .andReturn();
+        String body = result.getResponse().getContentAsString(UTF_8);
+        assertThat(body).endsWith("\r\n-----\r\n");
+        List<Map<String, Object>> parts = new ArrayList<>();
+        for (String part : body.substring(0, body.length() - "\r\n-----\r\n".length()).split("\r\n---\r\n")) {
+            if (!part.isEmpty()) {
+                assertThat(part).startsWith("Content-Type: application/json; charset=utf-8\r\n\r\n");
+                parts.add(om.readValue(part.substring(part.indexOf("\r\n\r\n") + 4), JSON_OBJECT));
+            }
+        }
+        return parts;
+    }
+
+    private ResultActions executeGraphQl(String query, MediaType accept) throws Exception {
+        ResultActions actions = restGraphQlMockMvc.perform(
+            post(GRAPHQL_URL).contentType(MediaType.APPLICATION_JSON).accept(accept).content(om.writeValueAsBytes(Map.of("query", query)))
+        );
+        // The response is asynchronous unless the execution completed before the handler returned
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? restGraphQlMockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
@@ -0,0 +1,90 @@
+package com.groupeisi.m2gl.web.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link GraphQlMetricsInstrumentation}.
+ */
+class GraphQlMetricsInstrumentationTest {
+
+    private static final GraphQLSchema SCHEMA = new SchemaGenerator().makeExecutableSchema(
+        new SchemaParser().parse("type Query { hello: String }"),
+        RuntimeWiring.newRuntimeWiring().type("Query", type -> type.dataFetcher("hello", environment -> "world")).build()
+    );
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void init() {
+        applicationProperties = new ApplicationProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void timeOperationPhasesAndFields() {
+        ExecutionResult result = execute("query Salut { hello }");
+
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(meterRegistry.get("graphql.operation").tag("operation", "Salut").tag("type", "query").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("graphql.operation.phase").tag("operation", "Salut").timers()).hasSize(3);
+        assertThat(meterRegistry.get("graphql.field").tag("field", "Query.hello").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tagFailedOperations() {
+        execute("query Invalide { unknown }");
+
+        assertThat(meterRegistry.get("graphql.operation").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void skipFieldsOfUnsampledOperations() {
+        applicationProperties.getGraphql().setMetricsFieldSampleRate(0);
+
+        execute("query Salut { hello }");
+
+        assertThat(meterRegistry.get("graphql.operation").tag("operation", "Salut").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("graphql.field").timer()).isNull();
+    }
+
+    @Test
+    void capOperationNames() {
+        applicationProperties.getGraphql().setMetricsMaxOperationNames(2);
+        GraphQL graphQL = graphQL();
+
+        graphQL.execute("query Un { hello }");
+        graphQL.execute("query Deux { hello }");
+        graphQL.execute("query Trois { hello }");
+        graphQL.execute("query Un { hello }");
+        graphQL.execute("{ hello }");
+
+        assertThat(meterRegistry.get("graphql.operation").tag("operation", "Un").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("graphql.operation").tag("operation", "Deux").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("graphql.operation").tag("operation", GraphQlMetricsInstrumentation.OTHER).timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("graphql.operation").tag("operation", GraphQlMetricsInstrumentation.ANONYMOUS).timer().count()).isEqualTo(
+            1
+        );
+    }
+
+    private ExecutionResult execute(String query) {
+        return graphQL().execute(query);
+    }
+
+    private GraphQL graphQL() {
+        return GraphQL.newGraphQL(SCHEMA).instrumentation(new GraphQlMetricsInstrumentation(applicationProperties, meterRegistry)).build();
+    }
+}
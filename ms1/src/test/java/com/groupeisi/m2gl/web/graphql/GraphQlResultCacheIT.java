@@ -0,0 +1,164 @@
+package com.groupeisi.m2gl.web.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Integration tests for the {@link GraphQlResultCache}, enabled for each test. The book is committed before each test
+ * and deleted after it.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class GraphQlResultCacheIT {
+
+    private static final String GRAPHQL_URL = "/graphql";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc restGraphQlMockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Book book;
+
+    private String query;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void initTest() {
+        applicationProperties.getGraphql().setResultCacheEnabled(true);
+        book = bookRepository.save(new Book().title("Cache").prix(1D).author("Cache").date_pub(LocalDate.ofEpochDay(0)));
+        // The id makes the query, and its cached result, unique to this test
+        query = "{ book(id: \"" + book.getId() + "\") { id title } }";
+        entityManagerFactory.getCache().evict(Book.class);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        applicationProperties.getGraphql().setResultCacheEnabled(false);
+        statistics.setStatisticsEnabled(false);
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    void serveRepeatedQueryFromCache() throws Exception {
+        executeGraphQl(query).andExpect(status().isOk()).andExpect(jsonPath("$.data.book.title").value("Cache"));
+        double hits = resultCacheGets("hit");
+        statistics.clear();
+
+        // Same document once normalized
+        executeGraphQl("query {\n  book(id: \"" + book.getId() + "\") {\n    id\n    title # cached\n  }\n}")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors").doesNotExist())
+            .andExpect(jsonPath("$.data.book.title").value("Cache"));
+
+        assertThat(resultCacheGets("hit")).isEqualTo(hits + 1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(meterRegistry.get("cache.weight").tag("cache", GraphQlResultCache.CACHE_NAME).gauge().value()).isPositive();
+    }
+
+    @Test
+    void dropCachedResultsOnWrite() throws Exception {
+        executeGraphQl(query).andExpect(jsonPath("$.data.book.title").value("Cache"));
+
+        book.setTitle("Cache modifié");
+        bookRepository.save(book);
+
+        executeGraphQl(query).andExpect(jsonPath("$.data.book.title").value("Cache modifié"));
+    }
+
+    @Test
+    void keyResultsByAuthorities() throws Exception {
+        executeGraphQl(query).andExpect(jsonPath("$.data.book.title").value("Cache"));
+        double hits = resultCacheGets("hit");
+
+        executeGraphQl(query, request -> request.with(user("admin").roles("ADMIN"))).andExpect(
+            jsonPath("$.data.book.title").value("Cache")
+        );
+
+        assertThat(resultCacheGets("hit")).isEqualTo(hits);
+    }
+
+    @Test
+    void executeOtherOperations() throws Exception {
+        double gets = resultCacheGets("hit") + resultCacheGets("miss");
+
+        executeGraphQl("{ booksConnection(first: 1) { edges { cursor } } }").andExpect(jsonPath("$.errors").doesNotExist());
+        executeGraphQl("mutation { deleteBook(id: \"" + (book.getId() + 1000) + "\") }").andExpect(jsonPath("$.errors").doesNotExist());
+
+        assertThat(resultCacheGets("hit") + resultCacheGets("miss")).isEqualTo(gets);
+    }
+
+    @Test
+    void bypassCacheWhenDisabled() throws Exception {
+        applicationProperties.getGraphql().setResultCacheEnabled(false);
+        double gets = resultCacheGets("hit") + resultCacheGets("miss");
+
+        executeGraphQl(query).andExpect(jsonPath("$.data.book.title").value("Cache"));
+        executeGraphQl(query).andExpect(jsonPath("$.data.book.title").value("Cache"));
+
+        assertThat(resultCacheGets("hit") + resultCacheGets("miss")).isEqualTo(gets);
+    }
+
+    private double resultCacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", GraphQlResultCache.CACHE_NAME).tag("result", result).functionCounter().count();
+    }
+
+    private ResultActions executeGraphQl(String query) throws Exception {
+        return executeGraphQl(query, request -> request);
+    }
+
+    private ResultActions executeGraphQl(String query, UnaryOperator<MockHttpServletRequestBuilder> customizer) throws Exception {
+        MockHttpServletRequestBuilder request = post(GRAPHQL_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(om.writeValueAsBytes(Map.of("query", query)));
+        ResultActions actions = restGraphQlMockMvc.perform(customizer.apply(request));
+        // The response is asynchronous unless the execution completed before the handler returned
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? restGraphQlMockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
@@ -0,0 +1,200 @@
+package com.groupeisi.m2gl.web.graphql.resolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Integration tests for the batch mutations of the {@link BookMutationResolver} GraphQL controller. The books are
+ * committed, and deleted after each test; the transactions and SQL statements are counted with the Hibernate statistics.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class BookMutationResolverIT {
+
+    private static final String GRAPHQL_URL = "/graphql";
+
+    private static final int BOOK_COUNT = 60;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MockMvc restGraphQlMockMvc;
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void initTest() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        statistics.setStatisticsEnabled(false);
+        if (!bookIds.isEmpty()) {
+            bookRepository.deleteAllById(bookRepository.findExistingIds(bookIds));
+            bookIds.clear();
+        }
+    }
+
+    @Test
+    void createBooksInOneTransaction() throws Exception {
+        List<Map<String, Object>> inputs = new ArrayList<>();
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            inputs.add(bookInput("Lot " + i, LocalDate.ofEpochDay(i).toString()));
+        }
+        inputs.add(1, bookInput("Lot invalide", "pas une date"));
+
+        String response = executeGraphQl(
+            "mutation($inputs: [BookInput!]!) { createBooks(inputs: $inputs) { id error book { title datePub } } }",
+            Map.of("inputs", inputs)
+        )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors").doesNotExist())
+            .andExpect(jsonPath("$.data.createBooks.length()").value(BOOK_COUNT + 1))
+            .andExpect(jsonPath("$.data.createBooks[0].book.title").value("Lot 0"))
+            .andExpect(jsonPath("$.data.createBooks[1].id").doesNotExist())
+            .andExpect(jsonPath("$.data.createBooks[1].error").value("datePub invalide : pas une date"))
+            .andExpect(jsonPath("$.data.createBooks[2].book.title").value("Lot 1"))
+            .andExpect(jsonPath("$.data.createBooks[60].book.datePub").value(LocalDate.ofEpochDay(BOOK_COUNT - 1).toString()))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        List<String> ids = JsonPath.read(response, "$.data.createBooks[*].id");
+        ids.stream().filter(Objects::nonNull).forEach(id -> bookIds.add(Long.valueOf(id)));
+
+        assertThat(statistics.getTransactionCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(BOOK_COUNT);
+        // Inserts sent in JDBC batches of hibernate.jdbc.batch_size, with a sequence call per 50 ids
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+        assertThat(bookRepository.findExistingIds(bookIds)).hasSize(BOOK_COUNT);
+    }
+
+    @Test
+    void updateBooksInOneTransaction() throws Exception {
+        createBooks();
+        List<Map<String, Object>> updates = new ArrayList<>();
+        for (Long id : bookIds) {
+            updates.add(Map.of("id", id.toString(), "input", bookInput("Modifié " + id, "2020-01-01")));
+        }
+        updates.add(Map.of("id", "0", "input", bookInput("Inconnu", "2020-01-01")));
+        statistics.clear();
+
+        executeGraphQl(
+            "mutation($updates: [BookUpdateInput!]!) { updateBooks(updates: $updates) { id error book { title } } }",
+            Map.of("updates", updates)
+        )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors").doesNotExist())
+            .andExpect(jsonPath("$.data.updateBooks[0].book.title").value("Modifié " + bookIds.get(0)))
+            .andExpect(jsonPath("$.data.updateBooks[60].id").value("0"))
+            .andExpect(jsonPath("$.data.updateBooks[60].error").value("Livre non trouvé avec l'ID: 0"));
+
+        assertThat(statistics.getTransactionCount()).isEqualTo(1);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(BOOK_COUNT);
+        // One select of the books, then one update per book: Hibernate does not batch the @DynamicUpdate statements
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(BOOK_COUNT + 1);
+        assertThat(bookRepository.findById(bookIds.get(BOOK_COUNT - 1)))
+            .get()
+            .extracting(Book::getTitle)
+            .isEqualTo("Modifié " + bookIds.get(BOOK_COUNT - 1));
+    }
+
+    @Test
+    void deleteBooksInOneTransaction() throws Exception {
+        createBooks();
+        List<String> ids = new ArrayList<>(bookIds.stream().map(String::valueOf).toList());
+        ids.add("0");
+        statistics.clear();
+
+        executeGraphQl("mutation($ids: [ID!]!) { deleteBooks(ids: $ids) { id error } }", Map.of("ids", ids))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors").doesNotExist())
+            .andExpect(jsonPath("$.data.deleteBooks[0].id").value(ids.get(0)))
+            .andExpect(jsonPath("$.data.deleteBooks[0].error").doesNotExist())
+            .andExpect(jsonPath("$.data.deleteBooks[60].error").value("Livre non trouvé avec l'ID: 0"));
+
+        assertThat(statistics.getTransactionCount()).isEqualTo(1);
+        // The existing books, locked in a single query, then the deletes sent in JDBC batches
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(BOOK_COUNT);
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(BOOK_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(bookRepository.findExistingIds(bookIds)).isEmpty();
+    }
+
+    @Test
+    void rejectTooLargeBatch() throws Exception {
+        int maxOperations = applicationProperties.getBookBatch().getMaxOperations();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i <= maxOperations; i++) {
+            ids.add(String.valueOf(i));
+        }
+
+        executeGraphQl("mutation($ids: [ID!]!) { deleteBooks(ids: $ids) { id } }", Map.of("ids", ids))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors[0].extensions.classification").value("BAD_REQUEST"));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private void createBooks() {
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            bookIds.add(bookRepository.save(new Book().title("Lot " + i).prix(1D).author("Lot").date_pub(LocalDate.ofEpochDay(i))).getId());
+        }
+    }
+
+    private static Map<String, Object> bookInput(String title, String datePub) {
+        return Map.of("title", title, "prix", 1D, "author", "Lot", "datePub", datePub);
+    }
+
+    private ResultActions executeGraphQl(String query, Map<String, Object> variables) throws Exception {
+        ResultActions actions = restGraphQlMockMvc.perform(
+            post(GRAPHQL_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsBytes(Map.of("query", query, "variables", variables)))
+        );
+        // The response is asynchronous unless the execution completed before the handler returned
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? restGraphQlMockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
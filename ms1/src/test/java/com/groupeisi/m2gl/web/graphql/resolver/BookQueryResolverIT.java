@@ -0,0 +1,284 @@
+package com.groupeisi.m2gl.web.graphql.resolver;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Integration tests for the {@link BookQueryResolver} GraphQL controller. Books are committed before each test and
+ * deleted after it, and the SQL statements are counted with the Hibernate statistics.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class BookQueryResolverIT {
+
+    private static final String GRAPHQL_URL = "/graphql";
+
+    private static final int BOOK_COUNT = 50;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc restGraphQlMockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Book> books = new ArrayList<>();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void initTest() {
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            books.add(bookRepository.save(new Book().title("GraphQL " + i).prix(1D).author("GraphQL").date_pub(LocalDate.ofEpochDay(i))));
+        }
+        // Cold second level cache, so that every book has to be read from the database
+        entityManagerFactory.getCache().evict(Book.class);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        statistics.setStatisticsEnabled(false);
+        bookRepository.deleteAllById(books.stream().map(Book::getId).toList());
+        books.clear();
+    }
+
+    @Test
+    void loadAliasedBooksWithASingleQuery() throws Exception {
+        StringBuilder query = new StringBuilder("{");
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            query.append(" b").append(i).append(": book(id: \"").append(books.get(i).getId()).append("\") { id title datePub }");
+        }
+        query.append(" missing: book(id: \"").append(books.get(BOOK_COUNT - 1).getId() + 1000).append("\") { id } }");
+
+        executeGraphQl(query.toString())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors").doesNotExist())
+            .andExpect(jsonPath("$.data.b0.title").value("GraphQL 0"))
+            .andExpect(jsonPath("$.data.b49.id").value(books.get(BOOK_COUNT - 1).getId().toString()))
+            .andExpect(jsonPath("$.data.b49.datePub").value(LocalDate.ofEpochDay(BOOK_COUNT - 1).toString()))
+            .andExpect(jsonPath("$.data.missing").doesNotExist());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        // Only the requested columns are read, without loading entities
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void loadSameBookWithOtherFields() throws Exception {
+        Long id = books.get(2).getId();
+        executeGraphQl("{ a: book(id: \"%d\") { title } b: book(id: \"%d\") { author datePub } }".formatted(id, id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors").doesNotExist())
+            .andExpect(jsonPath("$.data.a.title").value("GraphQL 2"))
+            .andExpect(jsonPath("$.data.b.author").value("GraphQL"))
+            .andExpect(jsonPath("$.data.b.datePub").value(LocalDate.ofEpochDay(2).toString()));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void loadCachedBooksFromTheSecondLevelCache() throws Exception {
+        Long cached = books.get(0).getId();
+        Long uncached = books.get(1).getId();
+        bookRepository.findById(cached);
+        statistics.clear();
+
+        executeGraphQl("{ a: book(id: \"%d\") { title } }".formatted(cached))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.a.title").value("GraphQL 0"));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(Book.class.getName()).getHitCount()).isEqualTo(1);
+
+        // Only the books missing from the cache are read, with a projection
+        statistics.clear();
+        executeGraphQl("{ a: book(id: \"%d\") { title } b: book(id: \"%d\") { title } }".formatted(cached, uncached))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.a.title").value("GraphQL 0"))
+            .andExpect(jsonPath("$.data.b.title").value("GraphQL 1"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void projectSearchResults() throws Exception {
+        executeGraphQl("{ booksByTitle(title: \"GraphQL 4\") { id title } }")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors").doesNotExist())
+            .andExpect(jsonPath("$.data.booksByTitle[0].title").value("GraphQL 4"))
+            .andExpect(jsonPath("$.data.booksByTitle[0].id").value(books.get(4).getId().toString()));
+
+        // The index gives the ids, the requested columns are read in one query
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void pageBooksWithCursors() throws Exception {
+        String page = "{ booksConnection(first: 20, after: %s, filter: { author: \"GraphQL\", prixMax: 1.0 }) {"
+            + " edges { cursor node { id title } } pageInfo { hasNextPage hasPreviousPage startCursor endCursor } } }";
+        List<String> titles = new ArrayList<>();
+        String after = null;
+        boolean hasNextPage = true;
+        int pages = 0;
+        while (hasNextPage) {
+            statistics.clear();
+            String response = executeGraphQl(page.formatted(after == null ? "null" : "\"" + after + "\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.booksConnection.pageInfo.hasPreviousPage").value(false))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+            // One keyset query per page, without a count
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(statistics.getEntityLoadCount()).isZero();
+            titles.addAll(JsonPath.read(response, "$.data.booksConnection.edges[*].node.title"));
+            List<String> cursors = JsonPath.read(response, "$.data.booksConnection.edges[*].cursor");
+            assertThat(cursors).last().isEqualTo(JsonPath.read(response, "$.data.booksConnection.pageInfo.endCursor"));
+            after = JsonPath.read(response, "$.data.booksConnection.pageInfo.endCursor");
+            hasNextPage = JsonPath.read(response, "$.data.booksConnection.pageInfo.hasNextPage");
+            pages++;
+        }
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(titles).containsExactlyElementsOf(books.stream().map(Book::getTitle).toList());
+    }
+
+    @Test
+    void rejectInvalidCursor() throws Exception {
+        executeGraphQl("{ booksConnection(first: 1, after: \"not a cursor\") { edges { cursor } } }")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors[0].extensions.classification").value("BAD_REQUEST"));
+    }
+
+    @Test
+    void rejectNonPositivePageSize() throws Exception {
+        for (int first : new int[] { 0, -1 }) {
+            executeGraphQl("{ booksConnection(first: " + first + ") { edges { cursor } pageInfo { hasNextPage } } }")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].extensions.classification").value("BAD_REQUEST"));
+        }
+    }
+
+    @Test
+    void reuseParsedDocuments() throws Exception {
+        String query = "{ book(id: \"" + books.get(0).getId() + "\") { title } }";
+        executeGraphQl(query).andExpect(jsonPath("$.data.book.title").value("GraphQL 0"));
+        double hits = documentCacheGets("graphql.documents", "hit");
+
+        executeGraphQl(query).andExpect(jsonPath("$.data.book.title").value("GraphQL 0"));
+
+        assertThat(documentCacheGets("graphql.documents", "hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void executePersistedQueryByHash() throws Exception {
+        // The id makes the query, and its hash, unique to this test
+        String query = "{ book(id: \"" + books.get(1).getId() + "\") { title } }";
+        Map<String, Object> persistedQuery = Map.of(
+            "persistedQuery",
+            Map.of("version", 1, "sha256Hash", HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(query.getBytes(UTF_8))))
+        );
+
+        executeGraphQl(Map.of("extensions", persistedQuery))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"));
+        executeGraphQl(Map.of("query", query, "extensions", persistedQuery))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.book.title").value("GraphQL 1"));
+        double hits = documentCacheGets("graphql.persisted-queries", "hit");
+
+        executeGraphQl(Map.of("extensions", persistedQuery))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors").doesNotExist())
+            .andExpect(jsonPath("$.data.book.title").value("GraphQL 1"));
+        assertThat(documentCacheGets("graphql.persisted-queries", "hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void rejectPersistedQueryWithWrongHash() throws Exception {
+        Map<String, Object> persistedQuery = Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", "0".repeat(64)));
+
+        executeGraphQl(Map.of("query", "{ books { id } }", "extensions", persistedQuery))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryIdInvalid"))
+            .andExpect(jsonPath("$.data").doesNotExist());
+    }
+
+    @Test
+    void timeOperationsByName() throws Exception {
+        executeGraphQl("query LivreMesure { book(id: \"" + books.get(0).getId() + "\") { title } }").andExpect(
+            jsonPath("$.data.book.title").value("GraphQL 0")
+        );
+
+        assertThat(
+            meterRegistry.get("graphql.operation").tag("operation", "LivreMesure").tag("type", "query").tag("outcome", "success").timer().count()
+        ).isEqualTo(1);
+        assertThat(meterRegistry.get("graphql.operation.phase").tag("operation", "LivreMesure").tag("phase", "execute").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("graphql.field").tag("operation", "LivreMesure").tag("field", "Query.book").timer().count()).isEqualTo(1);
+        // Property reads are not timed
+        assertThat(meterRegistry.find("graphql.field").tag("operation", "LivreMesure").tag("field", "Book.title").timer()).isNull();
+    }
+
+    private double documentCacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+
+    private ResultActions executeGraphQl(String query) throws Exception {
+        return executeGraphQl(Map.of("query", query));
+    }
+
+    private ResultActions executeGraphQl(Map<String, Object> body) throws Exception {
+        ResultActions actions = restGraphQlMockMvc.perform(
+            post(GRAPHQL_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(body))
+        );
+        // The response is asynchronous unless the execution completed before the handler returned
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? restGraphQlMockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
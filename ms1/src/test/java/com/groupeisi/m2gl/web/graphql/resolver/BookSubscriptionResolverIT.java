@@ -0,0 +1,141 @@
+package com.groupeisi.m2gl.web.graphql.resolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import graphql.ExecutionResult;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.server.webmvc.GraphQlWebSocketHandler;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Integration tests for the {@link BookSubscriptionResolver} GraphQL controller, executing the subscriptions without
+ * their WebSocket transport. The books are committed, and deleted after each test.
+ */
+@IntegrationTest
+class BookSubscriptionResolverIT {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired(required = false)
+    private GraphQlWebSocketHandler graphQlWebSocketHandler;
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    private Disposable subscription;
+
+    @AfterEach
+    void cleanup() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        bookRepository.deleteAllById(bookRepository.findExistingIds(bookIds));
+        bookIds.clear();
+    }
+
+    @Test
+    void serveSubscriptionsOverWebSocket() {
+        assertThat(graphQlWebSocketHandler).isNotNull();
+        assertThat(graphQlWebSocketHandler.getSubProtocols()).contains("graphql-transport-ws");
+    }
+
+    @Test
+    void receiveFilteredChanges() throws Exception {
+        BlockingQueue<Map<String, Object>> changes = subscribe(
+            "subscription { bookChanged(filter: { author: \"Abonné\" }) { type id book { title datePub } } }"
+        );
+
+        Book other = save("Autre", "Ignoré");
+        Book followed = save("Abonné", "Suivi");
+        followed.setTitle("Suivi modifié");
+        bookRepository.save(followed);
+        // Deletes are filtered on the author of the deleted book too
+        bookRepository.deleteById(other.getId());
+        bookRepository.deleteById(followed.getId());
+
+        assertThat(changes.poll(TIMEOUT.toSeconds(), TimeUnit.SECONDS)).isEqualTo(
+            Map.of(
+                "bookChanged",
+                Map.of(
+                    "type",
+                    "CREATED",
+                    "id",
+                    followed.getId().toString(),
+                    "book",
+                    Map.of("title", "Suivi", "datePub", LocalDate.ofEpochDay(0).toString())
+                )
+            )
+        );
+        assertThat(changes.poll(TIMEOUT.toSeconds(), TimeUnit.SECONDS))
+            .extracting(data -> ((Map<?, ?>) data.get("bookChanged")).get("type"))
+            .isEqualTo("UPDATED");
+        Map<String, Object> deleted = changes.poll(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        assertThat(deleted)
+            .extracting(data -> (Map<?, ?>) data.get("bookChanged"))
+            .satisfies(change -> {
+                assertThat(change.get("type")).isEqualTo("DELETED");
+                assertThat(change.get("id")).isEqualTo(followed.getId().toString());
+            });
+        assertThat(changes).isEmpty();
+    }
+
+    @Test
+    void filterChangesByIdRange() throws Exception {
+        Book first = save("Plage", "Premier");
+        BlockingQueue<Map<String, Object>> changes = subscribe(
+            "subscription { bookChanged(filter: { idMin: \"%d\", idMax: \"%d\" }) { type id } }".formatted(first.getId(), first.getId())
+        );
+
+        save("Plage", "Hors plage");
+        first.setTitle("Premier modifié");
+        bookRepository.save(first);
+
+        assertThat(changes.poll(TIMEOUT.toSeconds(), TimeUnit.SECONDS)).isEqualTo(
+            Map.of("bookChanged", Map.of("type", "UPDATED", "id", first.getId().toString()))
+        );
+        assertThat(changes).isEmpty();
+    }
+
+    private Book save(String author, String title) {
+        Book book = bookRepository.save(new Book().title(title).prix(1D).author(author).date_pub(LocalDate.ofEpochDay(0)));
+        bookIds.add(book.getId());
+        return book;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BlockingQueue<Map<String, Object>> subscribe(String document) {
+        ExecutionGraphQlResponse response = graphQlService
+            .execute(new DefaultExecutionGraphQlRequest(document, null, null, null, "1", null))
+            .block(TIMEOUT);
+        assertThat(response).isNotNull();
+        assertThat(response.getErrors()).isEmpty();
+        BlockingQueue<Map<String, Object>> changes = new LinkedBlockingQueue<>();
+        subscription = Flux.from((Publisher<ExecutionResult>) response.getData())
+            .map(result -> (Map<String, Object>) result.getData())
+            .subscribe(changes::add);
+        return changes;
+    }
+}
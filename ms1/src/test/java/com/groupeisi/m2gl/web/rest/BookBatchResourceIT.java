@@ -0,0 +1,186 @@
+package com.groupeisi.m2gl.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import com.groupeisi.m2gl.service.dto.BookOperationDTO;
+import com.groupeisi.m2gl.service.dto.BookOperationDTO.Op;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Integration tests for the {@link BookBatchResource} REST controller. Batches commit their own transactions, so the
+ * books are written outside of a test transaction and deleted after each test.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class BookBatchResourceIT {
+
+    private static final String BATCH_API_URL = "/api/batch";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc restBatchMockMvc;
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    private Book first;
+
+    private Book second;
+
+    @BeforeEach
+    void initTest() {
+        first = insertBook("Batch first");
+        second = insertBook("Batch second");
+    }
+
+    @AfterEach
+    void cleanup() {
+        bookIds.forEach(id -> bookRepository.findById(id).ifPresent(bookRepository::delete));
+        bookIds.clear();
+    }
+
+    @Test
+    void runOperationsEachInItsTransaction() throws Exception {
+        long missingId = second.getId() + 1000;
+        List<BookOperationDTO> operations = List.of(
+            new BookOperationDTO(Op.CREATE, null, new Book().title("Batch created").prix(3D).author("Batch")),
+            new BookOperationDTO(Op.GET, first.getId(), null),
+            new BookOperationDTO(Op.PATCH, first.getId(), new Book().title("Batch patched")),
+            new BookOperationDTO(Op.GET, first.getId(), null),
+            new BookOperationDTO(Op.DELETE, second.getId(), null),
+            new BookOperationDTO(Op.GET, missingId, null),
+            new BookOperationDTO(Op.UPDATE, missingId, new Book().title("Missing"))
+        );
+
+        String response = runBatch(operations, false)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains(201, 200, 200, 200, 204, 404, 400)))
+            .andExpect(jsonPath("$.[1].book.title").value("Batch first"))
+            .andExpect(jsonPath("$.[3].book.title").value("Batch patched"))
+            .andExpect(jsonPath("$.[5].error").value("idnotfound"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        bookIds.add(((Number) JsonPath.read(response, "$.[0].id")).longValue());
+
+        assertThat(bookRepository.findById(bookIds.get(bookIds.size() - 1))).get().extracting(Book::getTitle).isEqualTo("Batch created");
+        assertThat(bookRepository.findById(first.getId())).get().extracting(Book::getTitle).isEqualTo("Batch patched");
+        assertThat(bookRepository.existsById(second.getId())).isFalse();
+    }
+
+    @Test
+    void rollBackAtomicBatchOnFailure() throws Exception {
+        List<BookOperationDTO> operations = List.of(
+            new BookOperationDTO(Op.PATCH, first.getId(), new Book().title("Rolled back")),
+            new BookOperationDTO(Op.DELETE, second.getId(), null),
+            new BookOperationDTO(Op.CREATE, null, new Book().id(first.getId()).title("Existing id")),
+            new BookOperationDTO(Op.GET, first.getId(), null)
+        );
+
+        runBatch(operations, true)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains(424, 424, 400, 424)))
+            .andExpect(jsonPath("$.[*].error").value(contains("rolledback", "rolledback", "idexists", "notexecuted")));
+
+        assertThat(bookRepository.findById(first.getId())).get().extracting(Book::getTitle).isEqualTo("Batch first");
+        assertThat(bookRepository.existsById(second.getId())).isTrue();
+    }
+
+    @Test
+    void commitAtomicBatch() throws Exception {
+        List<BookOperationDTO> operations = List.of(
+            new BookOperationDTO(Op.UPDATE, first.getId(), new Book().title("Updated").prix(5D).author("Batch")),
+            new BookOperationDTO(Op.GET, first.getId(), null),
+            new BookOperationDTO(Op.DELETE, second.getId(), null)
+        );
+
+        runBatch(operations, true)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains(200, 200, 204)))
+            .andExpect(jsonPath("$.[1].book.title").value("Updated"))
+            .andExpect(jsonPath("$.[1].book.date_pub").doesNotExist());
+
+        assertThat(bookRepository.findById(first.getId())).get().extracting(Book::getDate_pub).isNull();
+        assertThat(bookRepository.existsById(second.getId())).isFalse();
+    }
+
+    @Test
+    void readBooksWithASingleQuery() throws Exception {
+        Book third = insertBook("Batch third");
+        entityManagerFactory.getCache().evict(Book.class);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        try {
+            runBatch(
+                List.of(
+                    new BookOperationDTO(Op.GET, first.getId(), null),
+                    new BookOperationDTO(Op.GET, second.getId(), null),
+                    new BookOperationDTO(Op.GET, third.getId(), null),
+                    new BookOperationDTO(Op.GET, third.getId() + 1000, null)
+                ),
+                false
+            )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].status").value(contains(200, 200, 200, 404)));
+
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void rejectTooManyOperations() throws Exception {
+        runBatch(Collections.nCopies(101, new BookOperationDTO(Op.GET, first.getId(), null)), false).andExpect(status().isBadRequest());
+    }
+
+    private ResultActions runBatch(List<BookOperationDTO> operations, boolean atomic) throws Exception {
+        return restBatchMockMvc.perform(
+            post(BATCH_API_URL)
+                .param("atomic", Boolean.toString(atomic))
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(om.writeValueAsBytes(operations))
+        );
+    }
+
+    private Book insertBook(String title) {
+        Book book = bookRepository.save(new Book().title(title).prix(1D).author("Batch").date_pub(LocalDate.ofEpochDay(0L)));
+        bookIds.add(book.getId());
+        return book;
+    }
+}
@@ -3,7 +3,13 @@ package com.groupeisi.m2gl.web.rest;
 import static com.groupeisi.m2gl.domain.BookAsserts.*;
 import static com.groupeisi.m2gl.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -12,19 +18,31 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.groupeisi.m2gl.IntegrationTest;
 import com.groupeisi.m2gl.domain.Book;
 import com.groupeisi.m2gl.repository.BookRepository;
+import com.groupeisi.m2gl.service.IdempotencyService;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -47,6 +65,8 @@ class BookResourceIT {
     private static final LocalDate DEFAULT_DATE_PUB = LocalDate.ofEpochDay(0L);
     private static final LocalDate UPDATED_DATE_PUB = LocalDate.now(ZoneId.systemDefault());
 
+    private static final String IMPORTED_TITLE = "IMPORTED";
+
     private static final String ENTITY_API_URL = "/api/books";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
 
@@ -56,12 +76,21 @@ class BookResourceIT {
     @Autowired
     private ObjectMapper om;
 
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
     @Autowired
     private BookRepository bookRepository;
 
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private MockMvc restBookMockMvc;
 
@@ -97,7 +126,8 @@ class BookResourceIT {
     @AfterEach
     void cleanup() {
         if (insertedBook != null) {
-            bookRepository.delete(insertedBook);
+            // By id: the test may hold a copy of the book with a stale version
+            bookRepository.deleteById(insertedBook.getId());
             insertedBook = null;
         }
     }
@@ -124,6 +154,32 @@ class BookResourceIT {
         insertedBook = returnedBook;
     }
 
+    @Test
+    @Transactional
+    void createBookAsCbor() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        ObjectMapper cbor = cborConverter.getObjectMapper();
+
+        // Create the Book, both ways in CBOR
+        MvcResult result = restBookMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_CBOR)
+                    .accept(MediaType.APPLICATION_CBOR)
+                    .content(cbor.writeValueAsBytes(book))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn();
+        Book returnedBook = cbor.readValue(result.getResponse().getContentAsByteArray(), Book.class);
+
+        assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+        assertBookUpdatableFieldsEquals(returnedBook, getPersistedBook(returnedBook));
+
+        insertedBook = returnedBook;
+    }
+
     @Test
     @Transactional
     void createBookWithExistingId() throws Exception {
@@ -141,6 +197,78 @@ class BookResourceIT {
         assertSameRepositoryCount(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void createBookWithIdempotencyKey() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        double replayedBefore = meterRegistry.counter("idempotency.requests", "operation", "createBook", "result", "replayed").count();
+        String idempotencyKey = "create-" + longCount.incrementAndGet();
+
+        // Send the creation twice, as a client retrying after a lost response would
+        String first = createBookWithIdempotencyKey(idempotencyKey);
+        try {
+            String retry = createBookWithIdempotencyKey(idempotencyKey);
+
+            assertThat(retry).isEqualTo(first);
+            assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+            assertThat(meterRegistry.counter("idempotency.requests", "operation", "createBook", "result", "replayed").count()).isEqualTo(
+                replayedBefore + 1
+            );
+        } finally {
+            bookRepository.deleteById(((Number) JsonPath.read(first, "$.id")).longValue());
+        }
+    }
+
+    @Test
+    void createAnotherBookWithTheSameIdempotencyKey() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        String idempotencyKey = "create-" + longCount.incrementAndGet();
+
+        String first = createBookWithIdempotencyKey(idempotencyKey);
+        try {
+            restBookMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .header(BookResource.HEADER_IDEMPOTENCY_KEY, idempotencyKey)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(createUpdatedEntity()))
+                )
+                .andExpect(status().isUnprocessableEntity());
+
+            assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+        } finally {
+            bookRepository.deleteById(((Number) JsonPath.read(first, "$.id")).longValue());
+        }
+    }
+
+    @Test
+    void createBookWithInvalidIdempotencyKey() throws Exception {
+        restBookMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header(BookResource.HEADER_IDEMPOTENCY_KEY, "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1))
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(book))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    private String createBookWithIdempotencyKey(String idempotencyKey) throws Exception {
+        return restBookMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .header(BookResource.HEADER_IDEMPOTENCY_KEY, idempotencyKey)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(book))
+            )
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    }
+
     @Test
     @Transactional
     void getAllBooks() throws Exception {
@@ -159,6 +287,484 @@ class BookResourceIT {
             .andExpect(jsonPath("$.[*].date_pub").value(hasItem(DEFAULT_DATE_PUB.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllBooksAsSmile() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.saveAndFlush(book);
+
+        // Get all the bookList in JSON then in Smile, which is smaller
+        MediaType smile = new MediaType("application", "x-jackson-smile");
+        int jsonLength = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray().length;
+        MvcResult result = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").accept(smile))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(smile))
+            .andReturn();
+        Book[] books = smileConverter.getObjectMapper().readValue(result.getResponse().getContentAsByteArray(), Book[].class);
+
+        assertThat(result.getResponse().getContentAsByteArray().length).isLessThan(jsonLength);
+        assertBookAllPropertiesEquals(book, Stream.of(books).filter(b -> book.getId().equals(b.getId())).findFirst().orElseThrow());
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithKeysetPagination() throws Exception {
+        // Initialize the database
+        Book first = bookRepository.saveAndFlush(createEntity());
+        Book second = bookRepository.saveAndFlush(createEntity());
+        Book third = bookRepository.saveAndFlush(createEntity());
+
+        // Get the first page, the next one is advertised in the Link header
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}&limit=2", first.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(second.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + second.getId())))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")));
+
+        // Get the next page from the cursor
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}&limit=2", second.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(third.getId().intValue()));
+
+        // Walk backwards with a descending sort
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}&limit=1&sort=id,desc", third.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllBookFieldsWithoutCount() throws Exception {
+        // Initialize the database
+        String author = "Uncounted " + longCount.incrementAndGet();
+        bookRepository.saveAndFlush(createEntity().author(author).prix(1D));
+        bookRepository.saveAndFlush(createEntity().author(author).prix(2D));
+
+        // The next page is known from an extra row, without a total
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=prix&author.equals={author}&sort=prix,asc&page=0&limit=1&count=none", author))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].prix").value(contains(1.0)))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("page=1")));
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=prix&author.equals={author}&sort=prix,asc&page=1&limit=1&count=none", author))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].prix").value(contains(2.0)))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithInvalidPaginationParameters() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?limit=0")).andExpect(status().isBadRequest());
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?sort=title,asc")).andExpect(status().isBadRequest());
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?sort=prix,asc&after=1")).andExpect(status().isBadRequest());
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?page=-1")).andExpect(status().isBadRequest());
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?page=0&count=approximate")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksByPrixIsInRange() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.saveAndFlush(book);
+
+        defaultBookFiltering("prix.greaterThanOrEqual=" + DEFAULT_PRIX + "&prix.lessThan=" + UPDATED_PRIX, "prix.greaterThan=" + DEFAULT_PRIX);
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksByAuthorIsEqualToSomething() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.saveAndFlush(book);
+
+        defaultBookFiltering("author.equals=" + DEFAULT_AUTHOR, "author.equals=" + UPDATED_AUTHOR);
+        defaultBookFiltering("author.in=" + DEFAULT_AUTHOR + "," + UPDATED_AUTHOR, "author.in=" + UPDATED_AUTHOR);
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksByDatePubIsInRange() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.saveAndFlush(book);
+
+        defaultBookFiltering(
+            "datePub.greaterThanOrEqual=" + DEFAULT_DATE_PUB + "&datePub.lessThanOrEqual=" + DEFAULT_DATE_PUB.plusDays(1),
+            "datePub.greaterThan=" + DEFAULT_DATE_PUB
+        );
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksSortedByPrix() throws Exception {
+        // Initialize the database
+        Book cheap = bookRepository.saveAndFlush(createEntity().prix(-2D));
+        Book cheaper = bookRepository.saveAndFlush(createEntity().prix(-3D));
+        bookRepository.saveAndFlush(createEntity().prix(-1D));
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?prix.lessThan=0&sort=prix,asc&limit=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("page=1")))
+            .andExpect(jsonPath("$.[*].id").value(contains(cheaper.getId().intValue(), cheap.getId().intValue())));
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?prix.lessThan=0&sort=prix,asc&limit=2&page=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void getAllBookFieldsByPrixSortedByPrix() throws Exception {
+        // Initialize the database
+        Book cheap = bookRepository.saveAndFlush(createEntity().prix(-2D));
+        Book cheaper = bookRepository.saveAndFlush(createEntity().prix(-3D));
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=prix&prix.lessThan=0&sort=prix,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$.[*].id").value(contains(cheap.getId().intValue(), cheaper.getId().intValue())))
+            .andExpect(jsonPath("$.[*].prix").value(contains(-2D, -3D)));
+    }
+
+    /**
+     * Executes the search with the given filters, and checks that the default entity is returned or not.
+     */
+    private void defaultBookFiltering(String shouldBeFound, String shouldNotBeFound) throws Exception {
+        defaultBookShouldBeFound(shouldBeFound);
+        defaultBookShouldNotBeFound(shouldNotBeFound);
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultBookShouldBeFound(String filter) throws Exception {
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(book.getId().intValue())))
+            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
+            .andExpect(jsonPath("$.[*].prix").value(hasItem(DEFAULT_PRIX)))
+            .andExpect(jsonPath("$.[*].author").value(hasItem(DEFAULT_AUTHOR)))
+            .andExpect(jsonPath("$.[*].date_pub").value(hasItem(DEFAULT_DATE_PUB.toString())));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultBookShouldNotBeFound(String filter) throws Exception {
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(book.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithFields() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.saveAndFlush(book);
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=prix,title&after={after}&limit=1", book.getId() - 1))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.[0].id").value(book.getId().intValue()))
+            .andExpect(jsonPath("$.[0].title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.[0].prix").value(DEFAULT_PRIX))
+            .andExpect(jsonPath("$.[0].author").doesNotExist())
+            .andExpect(jsonPath("$.[0].date_pub").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksWithUnknownField() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "?fields=title,isbn")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportBooksAsNdjson() throws Exception {
+        // Initialize the database, the export runs in its own transaction
+        insertedBook = bookRepository.saveAndFlush(book);
+
+        MvcResult result = restBookMockMvc.perform(get(ENTITY_API_URL + "/export")).andExpect(request().asyncStarted()).andReturn();
+        restBookMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string(containsString("\"id\":" + book.getId() + ",\"title\":\"" + DEFAULT_TITLE + "\"")));
+    }
+
+    @Test
+    void exportBooksAsCsv() throws Exception {
+        // Initialize the database, the export runs in its own transaction
+        insertedBook = bookRepository.saveAndFlush(book);
+
+        MvcResult result = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/export?format=csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restBookMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(content().string(startsWith("id,title,prix,author,date_pub\n")))
+            .andExpect(content().string(containsString(String.join(",", book.getId().toString(), DEFAULT_TITLE, "1.0", DEFAULT_AUTHOR, "1970-01-01"))));
+    }
+
+    @Test
+    void exportBooksAsCsvWithFields() throws Exception {
+        // Initialize the database, the export runs in its own transaction
+        insertedBook = bookRepository.saveAndFlush(book);
+
+        MvcResult result = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/export?format=csv&fields=title,prix"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restBookMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string(startsWith("id,title,prix\n")))
+            .andExpect(content().string(containsString(String.join(",", book.getId().toString(), DEFAULT_TITLE, "1.0") + "\n")));
+    }
+
+    @Test
+    void exportBooksWithUnsupportedFormat() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importBooksFromNdjson() throws Exception {
+        long databaseSizeBeforeImport = getRepositoryCount();
+        String body = String.join(
+            "\n",
+            "{\"title\":\"" + IMPORTED_TITLE + "\",\"prix\":1.0,\"author\":\"" + DEFAULT_AUTHOR + "\",\"date_pub\":\"1970-01-01\"}",
+            "{\"id\":1,\"title\":\"" + IMPORTED_TITLE + "\"}",
+            "not json",
+            "null",
+            "{\"title\":\"" + IMPORTED_TITLE + "\",\"prix\":2.0}"
+        );
+
+        try {
+            restBookMockMvc
+                .perform(post(ENTITY_API_URL + "/_import").with(csrf()).contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.rejections.[*].line").value(containsInAnyOrder(2, 3, 4)))
+                .andExpect(jsonPath("$.chunks.[0].committed").value(true));
+
+            assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeImport + 2);
+        } finally {
+            bookRepository.deleteAll(bookRepository.findByTitleContainingIgnoreCase(IMPORTED_TITLE));
+        }
+    }
+
+    @Test
+    void importBooksFromCsv() throws Exception {
+        long databaseSizeBeforeImport = getRepositoryCount();
+        String body = String.join(
+            "\n",
+            "id,title,prix,author,date_pub",
+            "," + IMPORTED_TITLE + ",1.5,\"Doe, John\",1970-01-01",
+            "," + IMPORTED_TITLE + ",not a price,,"
+        );
+
+        try {
+            restBookMockMvc
+                .perform(post(ENTITY_API_URL + "/_import").with(csrf()).contentType("text/csv").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(1));
+
+            assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeImport + 1);
+            assertThat(bookRepository.findByTitleContainingIgnoreCase(IMPORTED_TITLE)).singleElement().satisfies(imported -> {
+                assertThat(imported.getAuthor()).isEqualTo("Doe, John");
+                assertThat(imported.getDate_pub()).isEqualTo(DEFAULT_DATE_PUB);
+            });
+        } finally {
+            bookRepository.deleteAll(bookRepository.findByTitleContainingIgnoreCase(IMPORTED_TITLE));
+        }
+    }
+
+    @Test
+    void importBooksWithIdempotencyKey() throws Exception {
+        long databaseSizeBeforeImport = getRepositoryCount();
+        String idempotencyKey = "import-" + longCount.incrementAndGet();
+        String body = String.join(
+            "\n",
+            "{\"title\":\"" + IMPORTED_TITLE + "\",\"prix\":1.0}",
+            "{\"title\":\"" + IMPORTED_TITLE + "\",\"prix\":2.0}"
+        );
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                restBookMockMvc
+                    .perform(
+                        post(ENTITY_API_URL + "/_import")
+                            .header(BookResource.HEADER_IDEMPOTENCY_KEY, idempotencyKey)
+                            .with(csrf())
+                            .contentType("application/x-ndjson")
+                            .content(body)
+                    )
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.accepted").value(2));
+            }
+            restBookMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/_import")
+                        .header(BookResource.HEADER_IDEMPOTENCY_KEY, idempotencyKey)
+                        .with(csrf())
+                        .contentType("application/x-ndjson")
+                        .content(body + "\n{\"title\":\"" + IMPORTED_TITLE + "\",\"prix\":3.0}")
+                )
+                .andExpect(status().isUnprocessableEntity());
+
+            assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeImport + 2);
+        } finally {
+            bookRepository.deleteAll(bookRepository.findByTitleContainingIgnoreCase(IMPORTED_TITLE));
+        }
+    }
+
+    @Test
+    void searchBooks() throws Exception {
+        // Committed writes are applied to the search index, so the books are saved outside of a test transaction
+        Book exact = bookRepository.save(createEntity().title("Zygomorphe").author("Searched Author"));
+        Book word = bookRepository.save(createEntity().title("Le Zygomorphe illustré").author("Searched Author"));
+        Book typo = bookRepository.save(createEntity().title("Zygomorfe").author("Searched Author"));
+        Book renamed = bookRepository.save(createEntity().title("Zygomorphe").author("Searched Author"));
+
+        try {
+            renamed = bookRepository.save(renamed.title("Renamed"));
+
+            restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/_search?query=zygomorphé&field=title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(exact.getId().intValue(), word.getId().intValue(), typo.getId().intValue())));
+            restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/_search?query=searched author&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        } finally {
+            bookRepository.deleteAll(List.of(exact, word, typo, renamed));
+        }
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/_search?query=zygomorphe"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void followBookChanges() throws Exception {
+        MvcResult live = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/changes").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Committed writes are sent to the followers, so the book is saved outside of a test transaction
+        Book followed = bookRepository.save(createEntity().title("Followed"));
+        bookRepository.deleteById(followed.getId());
+
+        // Changes are sent by the feed's own threads
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .untilAsserted(() ->
+                assertThat(live.getResponse().getContentAsString()).contains(
+                    "event:created",
+                    "\"title\":\"Followed\"",
+                    "event:deleted",
+                    "\"id\":" + followed.getId()
+                )
+            );
+        String events = live.getResponse().getContentAsString();
+        Matcher ids = Pattern.compile("id:(\\d+)").matcher(events);
+        assertThat(ids.find()).isTrue();
+        long createdEventId = Long.parseLong(ids.group(1));
+
+        // A client resuming after the creation only receives the deletion
+        MvcResult resumed = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/changes").header("Last-Event-ID", createdEventId).accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .untilAsserted(() ->
+                assertThat(resumed.getResponse().getContentAsString())
+                    .startsWith("id:" + (createdEventId + 1) + "\nevent:deleted\n")
+                    .contains("\"id\":" + followed.getId())
+            );
+        assertThat(resumed.getResponse().getContentAsString()).doesNotContain("event:created");
+
+        // A client resuming from an unknown event must reload the books
+        MvcResult reset = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/changes").header("Last-Event-ID", Long.MAX_VALUE).accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .untilAsserted(() -> assertThat(reset.getResponse().getContentAsString()).contains("event:reset"));
+    }
+
+    @Test
+    void getBookStatistics() throws Exception {
+        MvcResult before = restBookMockMvc.perform(get(ENTITY_API_URL + "/stats")).andExpect(status().isOk()).andReturn();
+        int count = JsonPath.read(before.getResponse().getContentAsString(), "$.count");
+
+        // Committed writes are applied to the statistics, so the books are saved outside of a test transaction
+        Book first = bookRepository.save(createEntity().author("Statistics Author").prix(10.0).date_pub(LocalDate.of(1900, 1, 1)));
+        Book second = bookRepository.save(createEntity().author("Statistics Author").prix(30.0).date_pub(LocalDate.of(1900, 6, 1)));
+
+        try {
+            MvcResult after = restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.count").value(count + 2))
+                .andExpect(jsonPath("$.authors['Statistics Author'].count").value(2))
+                .andExpect(jsonPath("$.authors['Statistics Author'].averagePrix").value(20.0))
+                .andExpect(jsonPath("$.countByYear['1900']").value(2))
+                .andReturn();
+
+            restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/stats").header(HttpHeaders.IF_NONE_MATCH, after.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+        } finally {
+            bookRepository.deleteAll(List.of(first, second));
+        }
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(count))
+            .andExpect(jsonPath("$.authors['Statistics Author']").doesNotExist());
+    }
+
+    @Test
+    void searchBooksWithInvalidField() throws Exception {
+        restBookMockMvc.perform(get(ENTITY_API_URL + "/_search?query=a&field=prix")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getBook() throws Exception {
@@ -177,6 +783,53 @@ class BookResourceIT {
             .andExpect(jsonPath("$.date_pub").value(DEFAULT_DATE_PUB.toString()));
     }
 
+    @Test
+    @Transactional
+    void getBookNotModified() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.saveAndFlush(book);
+
+        String eTag = restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, book.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + book.getId() + "-" + book.getVersion() + "\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // An unchanged book is not sent again
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL_ID, book.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksNotModified() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.saveAndFlush(book);
+
+        String eTag = restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}", book.getId() - 1))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotBlank();
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}", book.getId() - 1).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Any update of a listed book changes the collection ETag
+        book.setTitle(UPDATED_TITLE);
+        bookRepository.saveAndFlush(book);
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after={after}", book.getId() - 1).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+    }
+
     @Test
     @Transactional
     void getNonExistingBook() throws Exception {
@@ -212,6 +865,50 @@ class BookResourceIT {
         assertPersistedBookToMatchAllProperties(updatedBook);
     }
 
+    @Test
+    @Transactional
+    void putBookWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.saveAndFlush(book);
+        String staleETag = "\"" + book.getId() + "-" + (book.getVersion() - 1) + "\"";
+
+        Book updatedBook = createUpdatedEntity().id(book.getId());
+        restBookMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, book.getId())
+                    .with(csrf())
+                    .header(HttpHeaders.IF_MATCH, staleETag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedBook))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        // Validate the Book in the database is unchanged
+        assertBookUpdatableFieldsEquals(createEntity(), getPersistedBook(book));
+    }
+
+    @Test
+    @Transactional
+    void patchBookWithMatchingIfMatch() throws Exception {
+        // Initialize the database
+        insertedBook = bookRepository.saveAndFlush(book);
+        long version = book.getVersion();
+        String eTag = "\"" + book.getId() + "-" + version + "\"";
+
+        Book partialUpdatedBook = new Book().id(book.getId()).title(UPDATED_TITLE);
+        restBookMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, book.getId())
+                    .with(csrf())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialUpdatedBook))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + book.getId() + "-" + (version + 1) + "\""))
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE));
+    }
+
     @Test
     @Transactional
     void putNonExistingBook() throws Exception {
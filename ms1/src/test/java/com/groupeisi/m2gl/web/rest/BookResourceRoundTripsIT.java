@@ -0,0 +1,191 @@
+package com.groupeisi.m2gl.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupeisi.m2gl.IntegrationTest;
+import com.groupeisi.m2gl.domain.Book;
+import com.groupeisi.m2gl.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Integration tests counting the SQL statements sent by the write endpoints and the offset pages of {@link BookResource},
+ * with the Hibernate statistics. Requests run in their own committed transactions, as in production.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class BookResourceRoundTripsIT {
+
+    private static final String ENTITY_API_URL = "/api/books";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc restBookMockMvc;
+
+    private Statistics statistics;
+
+    private Book book;
+
+    @BeforeEach
+    void initTest() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        book = bookRepository.save(new Book().title("Round trips").prix(1D).author("Round trips").date_pub(LocalDate.ofEpochDay(0L)));
+        // Warm the second level cache, as a read before the write would
+        bookRepository.findById(book.getId());
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.findById(book.getId()).ifPresent(bookRepository::delete);
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void patchSendsASingleUpdate() throws Exception {
+        Book patch = new Book().id(book.getId()).title("Patched");
+
+        restBookMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, book.getId())
+                    .with(csrf())
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(patch))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Patched"))
+            .andExpect(jsonPath("$.author").value("Round trips"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getTitle).isEqualTo("Patched");
+    }
+
+    @Test
+    void patchWithoutChangeSendsNoStatement() throws Exception {
+        Book patch = new Book().id(book.getId()).title(book.getTitle());
+
+        restBookMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, book.getId())
+                    .with(csrf())
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(patch))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"" + book.getId() + "-" + book.getVersion() + "\""));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void putSendsASingleUpdate() throws Exception {
+        Book update = new Book().id(book.getId()).title("Updated").prix(2D).author("Round trips").date_pub(LocalDate.ofEpochDay(1L));
+
+        restBookMockMvc
+            .perform(put(ENTITY_API_URL_ID, book.getId()).with(csrf()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(update)))
+            .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteSendsASingleDeleteAndTellsMissingBooks() throws Exception {
+        restBookMockMvc.perform(delete(ENTITY_API_URL_ID, book.getId()).with(csrf())).andExpect(status().isNoContent());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(bookRepository.existsById(book.getId())).isFalse();
+
+        statistics.clear();
+        restBookMockMvc.perform(delete(ENTITY_API_URL_ID, book.getId()).with(csrf())).andExpect(status().isNotFound());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteEvictsOnlyTheDeletedBook() throws Exception {
+        Book other = bookRepository.save(new Book().title("Round trips bis").prix(2D).author("Round trips"));
+        try {
+            bookRepository.findById(other.getId());
+
+            restBookMockMvc.perform(delete(ENTITY_API_URL_ID, book.getId()).with(csrf())).andExpect(status().isNoContent());
+
+            assertThat(bookRepository.findById(book.getId())).isEmpty();
+            assertThat(entityManagerFactory.getCache().contains(Book.class, other.getId())).isTrue();
+        } finally {
+            bookRepository.deleteById(other.getId());
+        }
+    }
+
+    @Test
+    void offsetPageWithoutCountSendsASingleQuery() throws Exception {
+        restBookMockMvc
+            .perform(getOffsetPage("none"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(book.getId().intValue()))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().doesNotExist("Link"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedCountIsReusedUntilAWrite() throws Exception {
+        restBookMockMvc.perform(getOffsetPage("cached")).andExpect(status().isOk()).andExpect(header().string("X-Total-Count", "1"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        restBookMockMvc.perform(getOffsetPage("cached")).andExpect(status().isOk()).andExpect(header().string("X-Total-Count", "1"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        // A committed write invalidates the count
+        Book other = bookRepository.save(new Book().title("Round trips bis").prix(2D).author("Round trips"));
+        try {
+            statistics.clear();
+            restBookMockMvc
+                .perform(getOffsetPage("cached"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(header().string("Link", containsString("page=1")));
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        } finally {
+            bookRepository.deleteById(other.getId());
+        }
+    }
+
+    private MockHttpServletRequestBuilder getOffsetPage(String count) {
+        return get(ENTITY_API_URL)
+            .param("author.equals", "Round trips")
+            .param("sort", "prix,asc")
+            .param("limit", "1")
+            .param("count", count);
+    }
+}
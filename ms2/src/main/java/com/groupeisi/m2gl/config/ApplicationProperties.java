@@ -1,5 +1,6 @@
 package com.groupeisi.m2gl.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +14,18 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Pagination pagination = new Pagination();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Pagination getPagination() {
+        return pagination;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +40,18 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Pagination {
+
+        private Duration countCacheTtl = Duration.ofMinutes(1);
+
+        public Duration getCountCacheTtl() {
+            return countCacheTtl;
+        }
+
+        public void setCountCacheTtl(Duration countCacheTtl) {
+            this.countCacheTtl = countCacheTtl;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -18,4 +18,8 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    Slice<User> findSliceByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    long countByIdNotNullAndActivatedIsTrue();
 }
@@ -0,0 +1,32 @@
+package com.groupeisi.m2gl.service;
+
+import java.util.Locale;
+
+/**
+ * How the total number of elements of an offset page is obtained.
+ */
+public enum CountMode {
+    /**
+     * A {@code count} query on every page.
+     */
+    EXACT,
+    /**
+     * The last count of the same query, until a write invalidates it.
+     */
+    CACHED,
+    /**
+     * No count: only whether there is a next page is known.
+     */
+    NONE;
+
+    /**
+     * Resolve a mode from its name, e.g. {@code exact}, {@code cached} or {@code none}.
+     *
+     * @param name the name of the mode, case insensitive.
+     * @return the mode.
+     * @throws IllegalArgumentException if the mode is not supported.
+     */
+    public static CountMode fromName(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
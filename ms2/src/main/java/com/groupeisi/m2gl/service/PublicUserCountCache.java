@@ -0,0 +1,70 @@
+package com.groupeisi.m2gl.service;
+
+import com.groupeisi.m2gl.config.ApplicationProperties;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache of the number of activated users, for the pages of public users read with {@link CountMode#CACHED}.
+ * <p>
+ * The user writes of this instance invalidate the count once committed, and a count computed while a write was
+ * committing is not kept. Writes of the other instances are only seen once the count expires, after
+ * {@code application.pagination.count-cache-ttl}.
+ */
+@Service
+public class PublicUserCountCache {
+
+    private final Duration ttl;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile CachedCount cached;
+
+    public PublicUserCountCache(ApplicationProperties applicationProperties) {
+        this.ttl = applicationProperties.getPagination().getCountCacheTtl();
+    }
+
+    /**
+     * Get the number of activated users, counting them if it is not cached.
+     *
+     * @param count the count query.
+     * @return the number of activated users.
+     */
+    public long get(LongSupplier count) {
+        long current = generation.get();
+        CachedCount last = cached;
+        if (last != null && last.generation == current && System.nanoTime() - last.countedAt < ttl.toNanos()) {
+            return last.count;
+        }
+        long total = count.getAsLong();
+        cached = new CachedCount(current, total, System.nanoTime());
+        return total;
+    }
+
+    /**
+     * Invalidate the count after the commit of the current transaction, or right away outside of a transaction.
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            generation.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            }
+        );
+    }
+
+    /**
+     * A count, with the generation of the writes it saw.
+     */
+    private record CachedCount(long generation, long count, long countedAt) {}
+}
@@ -15,6 +15,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
@@ -35,9 +37,12 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository) {
+    private final PublicUserCountCache publicUserCountCache;
+
+    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository, PublicUserCountCache publicUserCountCache) {
         this.userRepository = userRepository;
         this.authorityRepository = authorityRepository;
+        this.publicUserCountCache = publicUserCountCache;
     }
 
     /**
@@ -75,6 +80,27 @@ public class UserService {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
+    /**
+     * Get a page of the activated users.
+     *
+     * @param pageable the pagination information.
+     * @param count how the total number of activated users is obtained.
+     * @return the users, as a {@link Page} unless {@code count} is {@link CountMode#NONE}.
+     */
+    @Transactional(readOnly = true)
+    public Slice<UserDTO> getAllPublicUsers(Pageable pageable, CountMode count) {
+        if (count == CountMode.EXACT) {
+            return getAllPublicUsers(pageable);
+        }
+        Slice<UserDTO> users = userRepository.findSliceByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
+        if (count == CountMode.NONE) {
+            return users;
+        }
+        return PageableExecutionUtils.getPage(users.getContent(), pageable, () ->
+            publicUserCountCache.get(userRepository::countByIdNotNullAndActivatedIsTrue)
+        );
+    }
+
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
         return userRepository.findOneWithAuthoritiesByLogin(login);
@@ -125,6 +151,8 @@ public class UserService {
         } else {
             LOG.debug("Saving user '{}' in local database", user.getLogin());
             userRepository.save(user);
+            // Only a new user changes the number of activated users
+            publicUserCountCache.invalidate();
         }
         return user;
     }
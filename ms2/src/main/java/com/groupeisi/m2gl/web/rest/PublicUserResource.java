@@ -1,17 +1,21 @@
 package com.groupeisi.m2gl.web.rest;
 
+import com.groupeisi.m2gl.service.CountMode;
 import com.groupeisi.m2gl.service.UserService;
 import com.groupeisi.m2gl.service.dto.UserDTO;
+import com.groupeisi.m2gl.web.rest.errors.BadRequestAlertException;
 import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import tech.jhipster.web.util.PaginationUtil;
 
 @RestController
@@ -28,16 +32,57 @@ public class PublicUserResource {
 
     /**
      * {@code GET /users} : get all users with only public information - calling this method is allowed for anyone.
+     * <p>
+     * The total number of users is returned in the {@code X-Total-Count} header: counted on every page by default
+     * ({@code count=exact}), reused until a new user is saved ({@code count=cached}), or not counted at all
+     * ({@code count=none}), the {@code Link} header then only giving the next, previous and first pages.
      *
      * @param pageable the pagination information.
+     * @param count how the total is obtained: {@code exact}, {@code cached} or {@code none}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllPublicUsers(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<UserDTO>> getAllPublicUsers(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "count", defaultValue = "exact") String count
+    ) {
         LOG.debug("REST request to get all public User names");
 
-        final Page<UserDTO> page = userService.getAllPublicUsers(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        final Slice<UserDTO> slice = userService.getAllPublicUsers(pageable, resolveCountMode(count));
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        HttpHeaders headers = slice instanceof Page<UserDTO> page
+            ? PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page)
+            : generateSliceHttpHeaders(uriBuilder, slice);
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    private static CountMode resolveCountMode(String count) {
+        try {
+            return CountMode.fromName(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported count mode", "userManagement", "countinvalid");
+        }
+    }
+
+    /**
+     * Link header of a page read without a total, with the next, previous and first pages.
+     */
+    private static HttpHeaders generateSliceHttpHeaders(UriComponentsBuilder uriBuilder, Slice<?> slice) {
+        List<String> links = new ArrayList<>();
+        if (slice.hasNext()) {
+            links.add(pageLink(uriBuilder, slice.getNumber() + 1, slice.getSize(), "next"));
+        }
+        if (slice.hasPrevious()) {
+            links.add(pageLink(uriBuilder, slice.getNumber() - 1, slice.getSize(), "prev"));
+        }
+        links.add(pageLink(uriBuilder, 0, slice.getSize(), "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, String.join(",", links));
+        return headers;
+    }
+
+    private static String pageLink(UriComponentsBuilder uriBuilder, int page, int size, String relType) {
+        String uri = uriBuilder.replaceQueryParam("page", page).replaceQueryParam("size", size).toUriString();
+        return "<" + uri + ">; rel=\"" + relType + "\"";
     }
 }
@@ -1,5 +1,7 @@
 package com.groupeisi.m2gl.web.rest;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -13,6 +15,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -61,4 +64,39 @@ class PublicUserResourceIT {
             .andExpect(jsonPath("$.[*].imageUrl").doesNotHaveJsonPath())
             .andExpect(jsonPath("$.[*].langKey").doesNotHaveJsonPath());
     }
+
+    @Test
+    @Transactional
+    void getAllPublicUsersWithoutCount() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        restUserMockMvc
+            .perform(get("/api/users?sort=id,desc&count=none").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[?(@.id == '%s')].login", user.getId()).value(user.getLogin()))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"first\"")))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"last\""))));
+    }
+
+    @Test
+    @Transactional
+    void getAllPublicUsersWithCachedCount() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        long activated = userRepository.countByIdNotNullAndActivatedIsTrue();
+
+        for (int i = 0; i < 2; i++) {
+            restUserMockMvc
+                .perform(get("/api/users?size=1&count=cached").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", Long.toString(activated)));
+        }
+    }
+
+    @Test
+    void getAllPublicUsersWithInvalidCount() throws Exception {
+        restUserMockMvc.perform(get("/api/users?count=approximate")).andExpect(status().isBadRequest());
+    }
 }
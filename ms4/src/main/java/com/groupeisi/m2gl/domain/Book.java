@@ -15,7 +15,8 @@ public class Book implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookSequenceGenerator")
+    @SequenceGenerator(name = "bookSequenceGenerator", sequenceName = "book_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 